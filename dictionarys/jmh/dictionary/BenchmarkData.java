@@ -0,0 +1,200 @@
+package dictionary;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Keys, key orders and dictionary factory shared by the JMH benchmarks.
+ * <p>
+ * Key i is a word of lower-case letters derived from a bijective 64-bit mix
+ * of i, so keys 0..n-1 are distinct, of word-like length (about 14
+ * characters) and unrelated in their order. Keys from n on are used for
+ * searches that miss.
+ */
+final class BenchmarkData {
+
+	static final String UNIFORM = "uniform";
+	static final String ZIPF = "zipf";
+	static final String SORTED = "sorted";
+
+	// Number of precomputed search keys (power of two, used as ring buffer)
+	static final int QUERY_COUNT = 1 << 20;
+	static final int QUERY_MASK = QUERY_COUNT - 1;
+	// Above this size SortedArrayDictionary is only built in ascending order
+	static final int QUADRATIC_LIMIT = 100_000;
+	private static final double ZIPF_EXPONENT = 0.99;
+	private static final long SEED = 42;
+
+	final int size;
+	final String order;
+	// Keys 0..size-1 in generation order
+	final String[] keys;
+	private final Random random = new Random(SEED);
+
+	BenchmarkData(int size, String order) {
+		if (!order.equals(UNIFORM) && !order.equals(ZIPF) && !order.equals(SORTED))
+			throw new IllegalArgumentException("unknown key order: " + order);
+		this.size = size;
+		this.order = order;
+		this.keys = new String[size];
+		for (int i = 0; i < size; i++)
+			keys[i] = key(i);
+	}
+
+	/**
+	 * Returns size keys in the key order: a random permutation (uniform),
+	 * ascending (sorted) or size draws of the Zipf distribution (zipf; popular
+	 * keys repeat, so fewer than size keys are distinct).
+	 */
+	String[] sequence() {
+		return sequence(size, keys);
+	}
+
+	/**
+	 * Returns QUERY_COUNT keys of the dictionary in the key order. Sorted
+	 * queries run through the keys in ascending order, taking every
+	 * (size / QUERY_COUNT)-th key of large dictionaries.
+	 */
+	String[] hitQueries() {
+		return sequence(QUERY_COUNT, keys);
+	}
+
+	/**
+	 * Returns QUERY_COUNT keys that are not in the dictionary, in the key order.
+	 */
+	String[] missQueries() {
+		String[] absent = new String[Math.min(size, QUERY_COUNT)];
+		for (int i = 0; i < absent.length; i++)
+			absent[i] = key((long) size + i);
+		return sequence(QUERY_COUNT, absent);
+	}
+
+	private String[] sequence(int length, String[] pool) {
+		String[] seq = new String[length];
+		switch (order) {
+		case SORTED:
+			String[] sorted = pool.clone();
+			Arrays.sort(sorted);
+			for (int i = 0; i < length; i++)
+				seq[i] = sorted[length <= sorted.length ? (int) ((long) i * sorted.length / length) : i % sorted.length];
+			break;
+		case ZIPF:
+			// Ranks are mapped to keys by generation order, which is unrelated to key order
+			Zipf zipf = new Zipf(pool.length, ZIPF_EXPONENT);
+			for (int i = 0; i < length; i++)
+				seq[i] = pool[zipf.next(random)];
+			break;
+		default:
+			if (length == pool.length) {
+				System.arraycopy(pool, 0, seq, 0, length);
+				for (int i = length - 1; i > 0; i--) {
+					int j = random.nextInt(i + 1);
+					String t = seq[i];
+					seq[i] = seq[j];
+					seq[j] = t;
+				}
+			} else {
+				for (int i = 0; i < length; i++)
+					seq[i] = pool[random.nextInt(pool.length)];
+			}
+			break;
+		}
+		return seq;
+	}
+
+	/**
+	 * Creates an empty dictionary of the given implementation.
+	 */
+	static Dictionary<String, String> create(String impl) {
+		switch (impl) {
+		case "SortedArray":
+			return new SortedArrayDictionary<>();
+		case "Hash":
+			return new HashDictionary<>(3);
+		case "Bloom":
+			return new BloomFilterDictionary<>(new HashDictionary<>(3));
+		case "RobinHood":
+			return new RobinHoodHashDictionary<>();
+		case "Cuckoo":
+			return new CuckooHashDictionary<>();
+		case "ConcurrentHash":
+			return new ConcurrentHashDictionary<>();
+		case "SkipList":
+			return new ConcurrentSkipListDictionary<>();
+		case "BinaryTree":
+			return new BinaryTreeDictionary<>();
+		case "BTree":
+			return new BTreeDictionary<>();
+		case "Radix":
+			return new RadixTreeDictionary<>();
+		default:
+			throw new IllegalArgumentException("unknown dictionary: " + impl);
+		}
+	}
+
+	/**
+	 * Fails the setup of size/order combinations on which impl needs
+	 * quadratic time, so that JMH skips them instead of running for hours.
+	 */
+	static void checkFeasible(String impl, int size, boolean ascendingInsert) {
+		if (impl.equals("SortedArray") && size > QUADRATIC_LIMIT && !ascendingInsert)
+			throw new IllegalStateException("SortedArray with " + size + " keys: quadratic, skipped");
+	}
+
+	/**
+	 * Returns key i: the letters of a bijective mix of i in base 26.
+	 */
+	static String key(long i) {
+		long h = i + 0x9e3779b97f4a7c15L;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		char[] c = new char[14];
+		int n = 0;
+		do {
+			c[n++] = (char) ('a' + Long.remainderUnsigned(h, 26));
+			h = Long.divideUnsigned(h, 26);
+		} while (h != 0);
+		return new String(c, 0, n);
+	}
+
+	/**
+	 * Zipf distribution over 0..n-1 (Gray et al.: Quickly Generating
+	 * Billion-Record Synthetic Databases), as used by YCSB. Rank 0 is the
+	 * most popular.
+	 */
+	private static class Zipf {
+		private final int n;
+		private final double theta;
+		private final double alpha;
+		private final double zetan;
+		private final double eta;
+
+		Zipf(int n, double theta) {
+			this.n = n;
+			this.theta = theta;
+			this.alpha = 1 / (1 - theta);
+			this.zetan = zeta(n, theta);
+			this.eta = (1 - Math.pow(2.0 / n, 1 - theta)) / (1 - zeta(2, theta) / zetan);
+		}
+
+		int next(Random random) {
+			double u = random.nextDouble();
+			double uz = u * zetan;
+			if (uz < 1)
+				return 0;
+			if (uz < 1 + Math.pow(0.5, theta))
+				return Math.min(1, n - 1);
+			return (int) Math.min(n - 1, (long) (n * Math.pow(eta * u - eta + 1, alpha)));
+		}
+
+		private static double zeta(int n, double theta) {
+			double sum = 0;
+			for (int i = 1; i <= n; i++)
+				sum += 1 / Math.pow(i, theta);
+			return sum;
+		}
+	}
+}
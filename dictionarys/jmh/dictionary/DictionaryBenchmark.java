@@ -0,0 +1,160 @@
+package dictionary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks of single operations on a dictionary holding size keys:
+ * search hits, search misses, iteration and a mixed read/write workload.
+ * Insertion and removal of whole key sets are measured by
+ * DictionaryBuildBenchmark.
+ * <p>
+ * Unlike Measurement, every result is the average over several warmed-up
+ * iterations in a fresh JVM. The search keys follow the key order: uniform
+ * (random), zipf (skewed popularity, exponent 0.99) or sorted (ascending).
+ * <p>
+ * The sources in jmh/ are compiled together with src/ against jmh-core and
+ * the annotation processor jmh-generator-annprocess, e.g.
+ * <pre>
+ * javac -cp jmh-core.jar:jmh-generator-annprocess.jar:jopt-simple.jar:commons-math3.jar \
+ *     -d out src/dictionary/*.java jmh/dictionary/*.java
+ * java -cp out:jmh-core.jar:jopt-simple.jar:commons-math3.jar dictionary.DictionaryBenchmark \
+ *     -p impl=Hash,BTree -p size=1000,1000000
+ * </pre>
+ * main runs all benchmarks of this package with the GC profiler, which
+ * reports the allocation rate (gc.alloc.rate.norm: bytes per operation).
+ * Further arguments are JMH command line options. Sizes of 10^7 need a
+ * large heap, so the fork may grow up to -Xmx8g; the heap is not
+ * preallocated, which would distort the GC numbers of small sizes. Other
+ * limits can be given with -jvmArgsAppend, e.g. -jvmArgsAppend -Xmx2g
+ * together with -p size=1000,1000000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@org.openjdk.jmh.annotations.Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class DictionaryBenchmark {
+
+	@Param({ "SortedArray", "Hash", "Bloom", "RobinHood", "Cuckoo", "ConcurrentHash", "SkipList", "BinaryTree",
+			"BTree", "Radix" })
+	public String impl;
+
+	@Param({ "1000", "10000", "100000", "1000000", "10000000" })
+	public int size;
+
+	@Param({ BenchmarkData.UNIFORM, BenchmarkData.ZIPF, BenchmarkData.SORTED })
+	public String order;
+
+	private Dictionary<String, String> dict;
+	private String[] hits;
+	private String[] misses;
+	private int next;
+	// Key removed by the mixed workload, reinserted by its next write
+	private String removed;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkData data = new BenchmarkData(size, order);
+		dict = BenchmarkData.create(impl);
+		// Bulk load in generation order, which is random (SortedArrayDictionary sorts once)
+		List<Dictionary.Entry<String, String>> entries = new ArrayList<>(size);
+		for (String key : data.keys)
+			entries.add(new Dictionary.Entry<>(key, key));
+		dict.insertAll(entries);
+		hits = data.hitQueries();
+		misses = data.missQueries();
+		next = 0;
+		removed = null;
+	}
+
+	/**
+	 * Reinserts a key left removed by mixed, so every iteration starts with size keys.
+	 */
+	@TearDown(Level.Iteration)
+	public void restore() {
+		if (removed != null)
+			dict.insert(removed, removed);
+		removed = null;
+	}
+
+	@Benchmark
+	public String searchHit() {
+		return dict.search(hits[next++ & BenchmarkData.QUERY_MASK]);
+	}
+
+	@Benchmark
+	public String searchMiss() {
+		return dict.search(misses[next++ & BenchmarkData.QUERY_MASK]);
+	}
+
+	/**
+	 * Visits all entries; the time is per dictionary, not per entry.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int iterate() {
+		int h = 0;
+		for (Dictionary.Entry<String, String> e : dict)
+			h += e.getKey().length() + e.getValue().length();
+		return h;
+	}
+
+	/**
+	 * 85 % searches, 5 % updates of existing keys, 5 % removals and
+	 * 5 % reinsertions of the removed keys, so the size stays constant.
+	 */
+	@Benchmark
+	public String mixed() {
+		int i = next++;
+		String key = hits[i & BenchmarkData.QUERY_MASK];
+		switch (i % 20) {
+		case 0:
+			if (removed == null) {
+				removed = key;
+				return dict.remove(key);
+			}
+			return dict.search(key);
+		case 1:
+			if (removed != null) {
+				key = removed;
+				removed = null;
+				return dict.insert(key, key);
+			}
+			return dict.search(key);
+		case 2:
+			return dict.insert(key, key);
+		default:
+			return dict.search(key);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions cmd = new CommandLineOptions(args);
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd)
+				.addProfiler(GCProfiler.class);
+		if (cmd.getIncludes().isEmpty())
+			options.include("dictionary\\..*Benchmark");
+		new Runner(options.build()).run();
+	}
+}
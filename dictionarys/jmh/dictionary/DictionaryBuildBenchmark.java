@@ -0,0 +1,95 @@
+package dictionary;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks that insert size keys into an empty dictionary, one by one,
+ * and remove them again. Every measurement is a single run over all keys
+ * (time per size operations); the dictionary is rebuilt before each run.
+ * The keys come in the key order: uniform (random permutation), zipf
+ * (size draws of a skewed distribution, so popular keys repeat as updates
+ * resp. unsuccessful removals) or sorted (ascending).
+ * <p>
+ * SortedArrayDictionary needs quadratic time beyond QUADRATIC_LIMIT keys,
+ * except for inserts in ascending order; these combinations fail in setup
+ * and are skipped by JMH. See DictionaryBenchmark for how to run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@org.openjdk.jmh.annotations.Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class DictionaryBuildBenchmark {
+
+	@Param({ "SortedArray", "Hash", "Bloom", "RobinHood", "Cuckoo", "ConcurrentHash", "SkipList", "BinaryTree",
+			"BTree", "Radix" })
+	public String impl;
+
+	@Param({ "1000", "10000", "100000", "1000000", "10000000" })
+	public int size;
+
+	@Param({ BenchmarkData.UNIFORM, BenchmarkData.ZIPF, BenchmarkData.SORTED })
+	public String order;
+
+	private BenchmarkData data;
+	private String[] sequence;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		data = new BenchmarkData(size, order);
+		sequence = data.sequence();
+	}
+
+	@State(Scope.Thread)
+	public static class Empty {
+		Dictionary<String, String> dict;
+
+		@Setup(Level.Invocation)
+		public void setUp(DictionaryBuildBenchmark b) {
+			BenchmarkData.checkFeasible(b.impl, b.size, b.order.equals(BenchmarkData.SORTED));
+			dict = BenchmarkData.create(b.impl);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Filled {
+		Dictionary<String, String> dict;
+
+		@Setup(Level.Invocation)
+		public void setUp(DictionaryBuildBenchmark b) {
+			BenchmarkData.checkFeasible(b.impl, b.size, false);
+			dict = BenchmarkData.create(b.impl);
+			for (String key : b.data.keys)
+				dict.insert(key, key);
+		}
+	}
+
+	@Benchmark
+	public int insert(Empty state) {
+		Dictionary<String, String> dict = state.dict;
+		for (String key : sequence)
+			dict.insert(key, key);
+		return dict.size();
+	}
+
+	@Benchmark
+	public int remove(Filled state) {
+		Dictionary<String, String> dict = state.dict;
+		for (String key : sequence)
+			dict.remove(key);
+		return dict.size();
+	}
+}
@@ -0,0 +1,166 @@
+package dictionary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+/**
+ * Thread-safe mutable dictionary on top of PersistentTreeDictionary.
+ * <p>
+ * The current version is held in an AtomicReference. A writer derives a
+ * new version from the current one (O(log n) new nodes) and publishes it by
+ * compareAndSet; if another writer was faster, it retries on the newer
+ * version. Readers never block: every read works on the version current at
+ * its start, and snapshot() hands out that version in O(1), e.g. for a
+ * consistent export while writers go on. Iterators are snapshots as well.
+ * <p>
+ * insertAll and removeAll publish all their changes at once, so readers see
+ * either none or all of them. Under heavy write contention, retries cost
+ * the repeated path copying; the function of compute may then be applied
+ * more than once.
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public class AtomicTreeDictionary<K extends Comparable<? super K>, V> implements OrderedDictionary<K, V> {
+
+	private final AtomicReference<PersistentTreeDictionary<K, V>> current;
+
+	public AtomicTreeDictionary() {
+		this(PersistentTreeDictionary.empty());
+	}
+
+	/**
+	 * @param initial version to start with
+	 */
+	public AtomicTreeDictionary(PersistentTreeDictionary<K, V> initial) {
+		this.current = new AtomicReference<>(initial);
+	}
+
+	/**
+	 * Returns the current version in O(1). Later changes of this dictionary
+	 * do not affect it.
+	 * @return an immutable snapshot of this dictionary
+	 */
+	public PersistentTreeDictionary<K, V> snapshot() {
+		return current.get();
+	}
+
+	@Override
+	public V insert(K key, V value) {
+		while (true) {
+			PersistentTreeDictionary<K, V> old = current.get();
+			PersistentTreeDictionary.Update<V> u = new PersistentTreeDictionary.Update<>();
+			PersistentTreeDictionary<K, V> next = old.with(key, value, u);
+			if (next == old || current.compareAndSet(old, next))
+				return u.oldValue;
+		}
+	}
+
+	@Override
+	public V remove(K key) {
+		while (true) {
+			PersistentTreeDictionary<K, V> old = current.get();
+			PersistentTreeDictionary.Update<V> u = new PersistentTreeDictionary.Update<>();
+			PersistentTreeDictionary<K, V> next = old.without(key, u);
+			if (next == old || current.compareAndSet(old, next))
+				return u.oldValue;
+		}
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		while (true) {
+			PersistentTreeDictionary<K, V> old = current.get();
+			V v = old.search(key);
+			if (v != null || current.compareAndSet(old, old.with(key, value)))
+				return v;
+		}
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> f) {
+		while (true) {
+			PersistentTreeDictionary<K, V> old = current.get();
+			V v = f.apply(key, old.search(key));
+			PersistentTreeDictionary<K, V> next = (v == null) ? old.without(key) : old.with(key, v);
+			if (next == old || current.compareAndSet(old, next))
+				return v;
+		}
+	}
+
+	/**
+	 * Inserts all entries into one new version, which is published at once.
+	 */
+	@Override
+	public void insertAll(Iterable<? extends Entry<K, V>> entries) {
+		List<Entry<K, V>> list = new ArrayList<>();
+		for (Entry<K, V> e : entries)
+			list.add(e);
+		while (true) {
+			PersistentTreeDictionary<K, V> old = current.get();
+			PersistentTreeDictionary<K, V> next = old;
+			for (Entry<K, V> e : list)
+				next = next.with(e.getKey(), e.getValue());
+			if (next == old || current.compareAndSet(old, next))
+				return;
+		}
+	}
+
+	/**
+	 * Removes all keys from one new version, which is published at once.
+	 */
+	@Override
+	public int removeAll(Collection<? extends K> keys) {
+		while (true) {
+			PersistentTreeDictionary<K, V> old = current.get();
+			PersistentTreeDictionary<K, V> next = old;
+			for (K key : keys)
+				next = next.without(key);
+			if (next == old || current.compareAndSet(old, next))
+				return old.size() - next.size();
+		}
+	}
+
+	@Override
+	public V search(K key) {
+		return current.get().search(key);
+	}
+
+	@Override
+	public int size() {
+		return current.get().size();
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> iterator() {
+		return current.get().iterator();
+	}
+
+	@Override
+	public Entry<K, V> first() {
+		return current.get().first();
+	}
+
+	@Override
+	public Entry<K, V> last() {
+		return current.get().last();
+	}
+
+	@Override
+	public Entry<K, V> floor(K key) {
+		return current.get().floor(key);
+	}
+
+	@Override
+	public Entry<K, V> ceiling(K key) {
+		return current.get().ceiling(key);
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> range(K from, K to) {
+		return current.get().range(from, to);
+	}
+}
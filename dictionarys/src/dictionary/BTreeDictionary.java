@@ -0,0 +1,523 @@
+package dictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * B+ tree with configurable fanout.
+ * Keys and values are stored in arrays inside the nodes, so a lookup touches
+ * only about log_fanout(n) nodes instead of log2(n) nodes of a binary tree,
+ * and searches inside a node by binary search over a contiguous array.
+ * All entries live in the leaves, which are linked from left to right;
+ * in-order iteration and range scans simply walk this chain.
+ * Inner nodes hold only separator keys: child i contains the keys
+ * &lt; keys[i], child i + 1 the keys &gt;= keys[i].
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public class BTreeDictionary<K extends Comparable<? super K>, V> implements OrderedDictionary<K, V> {
+
+	private static final int DEFAULT_FANOUT = 64;
+
+	private final int maxKeys;
+	private final int minKeys;
+	private Node root;
+	// Number of inner levels above the leaves
+	private int height;
+	private int size;
+	// Event counters for stats(), null while counting is disabled
+	private DictionaryStats.Counters counters;
+
+	public BTreeDictionary() {
+		this(DEFAULT_FANOUT);
+	}
+
+	/**
+	 * @param fanout maximum number of keys per node (at least 3)
+	 */
+	public BTreeDictionary(int fanout) {
+		if (fanout < 3)
+			throw new IllegalArgumentException("fanout must be at least 3: " + fanout);
+		this.maxKeys = fanout;
+		this.minKeys = fanout / 2;
+		this.root = new Leaf(maxKeys);
+	}
+
+	@Override
+	public V insert(K key, V value) {
+		Inner[] path = new Inner[height];
+		int[] childIndex = new int[height];
+		Node p = root;
+		for (int level = 0; level < height; level++) {
+			Inner inner = (Inner) p;
+			int c = childIndexOf(inner, key);
+			path[level] = inner;
+			childIndex[level] = c;
+			p = inner.children[c];
+		}
+		Leaf leaf = (Leaf) p;
+		int i = indexOf(leaf, key);
+		if (i >= 0) {
+			@SuppressWarnings("unchecked")
+			V r = (V) leaf.values[i];
+			leaf.values[i] = value;
+			return r;
+		}
+		if (counters != null) {
+			counters.inserts++;
+			counters.insertMoves += leaf.n + i + 1;
+		}
+		leaf.insertAt(-i - 1, key, value);
+		size++;
+		if (leaf.n > maxKeys)
+			splitUpwards(leaf, path, childIndex);
+		return null;
+	}
+
+	@Override
+	public V search(K key) {
+		Node p = root;
+		for (int level = 0; level < height; level++) {
+			Inner inner = (Inner) p;
+			p = inner.children[childIndexOf(inner, key)];
+		}
+		Leaf leaf = (Leaf) p;
+		int i = indexOf(leaf, key);
+		@SuppressWarnings("unchecked")
+		V r = (i >= 0) ? (V) leaf.values[i] : null;
+		return r;
+	}
+
+	@Override
+	public V remove(K key) {
+		Inner[] path = new Inner[height];
+		int[] childIndex = new int[height];
+		Node p = root;
+		for (int level = 0; level < height; level++) {
+			Inner inner = (Inner) p;
+			int c = childIndexOf(inner, key);
+			path[level] = inner;
+			childIndex[level] = c;
+			p = inner.children[c];
+		}
+		Leaf leaf = (Leaf) p;
+		int i = indexOf(leaf, key);
+		if (i < 0)
+			return null;
+		@SuppressWarnings("unchecked")
+		V r = (V) leaf.values[i];
+		leaf.removeAt(i);
+		size--;
+		rebalanceUpwards(leaf, path, childIndex);
+		return r;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * The histogram counts the nodes per depth; the load factor is the
+	 * average fill ratio of the leaves. Moves are the entries shifted within
+	 * a leaf and moved by leaf splits.
+	 */
+	@Override
+	public DictionaryStats stats() {
+		long[] histogram = new long[height + 1];
+		List<Node> level = List.of(root);
+		for (int depth = 0; depth < height; depth++) {
+			histogram[depth] = level.size();
+			List<Node> next = new ArrayList<>();
+			for (Node p : level)
+				next.addAll(Arrays.asList(((Inner) p).children).subList(0, p.n + 1));
+			level = next;
+		}
+		histogram[height] = level.size();
+		double fill = (double) size / ((long) level.size() * maxKeys);
+		return new DictionaryStats(size, fill, "depth", histogram, height + 1, counters);
+	}
+
+	@Override
+	public void setStatsEnabled(boolean enabled) {
+		counters = enabled ? new DictionaryStats.Counters() : null;
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> iterator() {
+		Node p = root;
+		for (int level = 0; level < height; level++)
+			p = ((Inner) p).children[0];
+		return new LeafIterator((Leaf) p, 0, null);
+	}
+
+	@Override
+	public Entry<K, V> first() {
+		return (size == 0) ? null : iterator().next();
+	}
+
+	@Override
+	public Entry<K, V> last() {
+		if (size == 0)
+			return null;
+		Node p = root;
+		for (int level = 0; level < height; level++)
+			p = ((Inner) p).children[p.n];
+		return entryAt((Leaf) p, p.n - 1);
+	}
+
+	@Override
+	public Entry<K, V> floor(K key) {
+		// Deepest subtree left of the search path: holds the floor if the
+		// leaf itself has no key <= key
+		Node leftOfPath = null;
+		Node p = root;
+		for (int level = 0; level < height; level++) {
+			Inner inner = (Inner) p;
+			int c = childIndexOf(inner, key);
+			if (c > 0)
+				leftOfPath = inner.children[c - 1];
+			p = inner.children[c];
+		}
+		Leaf leaf = (Leaf) p;
+		int i = indexOf(leaf, key);
+		if (i >= 0)
+			return entryAt(leaf, i);
+		i = -i - 2;
+		if (i >= 0)
+			return entryAt(leaf, i);
+		if (leftOfPath == null)
+			return null;
+		p = leftOfPath;
+		while (p instanceof Inner)
+			p = ((Inner) p).children[p.n];
+		return entryAt((Leaf) p, p.n - 1);
+	}
+
+	@Override
+	public Entry<K, V> ceiling(K key) {
+		Iterator<Entry<K, V>> it = range(key, null);
+		return it.hasNext() ? it.next() : null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * If to is null, the range is unbounded above.
+	 */
+	@Override
+	public Iterator<Entry<K, V>> range(K from, K to) {
+		Node p = root;
+		for (int level = 0; level < height; level++) {
+			Inner inner = (Inner) p;
+			p = inner.children[childIndexOf(inner, from)];
+		}
+		Leaf leaf = (Leaf) p;
+		int i = indexOf(leaf, from);
+		return new LeafIterator(leaf, (i >= 0) ? i : -i - 1, to);
+	}
+
+	/**
+	 * Splits the overfull node p and inserts the separator into its parent,
+	 * as long as parents overflow in turn. A split of the root adds a level.
+	 */
+	private void splitUpwards(Node p, Inner[] path, int[] childIndex) {
+		for (int level = height - 1; p.n > maxKeys; level--) {
+			Object separator;
+			Node right;
+			if (p instanceof Leaf) {
+				Leaf leaf = (Leaf) p;
+				Leaf r = new Leaf(maxKeys);
+				int mid = leaf.n / 2;
+				r.n = leaf.n - mid;
+				System.arraycopy(leaf.keys, mid, r.keys, 0, r.n);
+				System.arraycopy(leaf.values, mid, r.values, 0, r.n);
+				leaf.clear(mid, leaf.n);
+				leaf.n = mid;
+				if (counters != null)
+					counters.insertMoves += r.n;
+				r.next = leaf.next;
+				leaf.next = r;
+				separator = r.keys[0];
+				right = r;
+			} else {
+				Inner inner = (Inner) p;
+				Inner r = new Inner(maxKeys);
+				int mid = inner.n / 2;
+				separator = inner.keys[mid];
+				r.n = inner.n - mid - 1;
+				System.arraycopy(inner.keys, mid + 1, r.keys, 0, r.n);
+				System.arraycopy(inner.children, mid + 1, r.children, 0, r.n + 1);
+				inner.clear(mid, inner.n);
+				inner.n = mid;
+				right = r;
+			}
+			if (level < 0) {
+				Inner newRoot = new Inner(maxKeys);
+				newRoot.keys[0] = separator;
+				newRoot.children[0] = p;
+				newRoot.children[1] = right;
+				newRoot.n = 1;
+				root = newRoot;
+				height++;
+				return;
+			}
+			Inner parent = path[level];
+			parent.insertAt(childIndex[level], separator, right);
+			p = parent;
+		}
+	}
+
+	/**
+	 * Restores the minimum occupancy of p after a removal by borrowing from
+	 * a sibling or merging with it, as long as parents underflow in turn.
+	 * An empty inner root is replaced by its only child.
+	 */
+	private void rebalanceUpwards(Node p, Inner[] path, int[] childIndex) {
+		for (int level = height - 1; level >= 0 && p.n < minKeys; level--) {
+			Inner parent = path[level];
+			int c = childIndex[level];
+			Node left = (c > 0) ? parent.children[c - 1] : null;
+			Node right = (c < parent.n) ? parent.children[c + 1] : null;
+			if (left != null && left.n > minKeys)
+				borrowFromLeft(parent, c, p, left);
+			else if (right != null && right.n > minKeys)
+				borrowFromRight(parent, c, p, right);
+			else if (left != null)
+				merge(parent, c - 1, left, p);
+			else
+				merge(parent, c, p, right);
+			p = parent;
+		}
+		if (height > 0 && root.n == 0) {
+			root = ((Inner) root).children[0];
+			height--;
+		}
+	}
+
+	private void borrowFromLeft(Inner parent, int c, Node p, Node left) {
+		if (p instanceof Leaf) {
+			Leaf leaf = (Leaf) p;
+			Leaf l = (Leaf) left;
+			leaf.insertAt(0, l.keys[l.n - 1], l.values[l.n - 1]);
+			l.removeAt(l.n - 1);
+			parent.keys[c - 1] = leaf.keys[0];
+		} else {
+			Inner inner = (Inner) p;
+			Inner l = (Inner) left;
+			System.arraycopy(inner.keys, 0, inner.keys, 1, inner.n);
+			System.arraycopy(inner.children, 0, inner.children, 1, inner.n + 1);
+			inner.keys[0] = parent.keys[c - 1];
+			inner.children[0] = l.children[l.n];
+			inner.n++;
+			parent.keys[c - 1] = l.keys[l.n - 1];
+			l.clear(l.n - 1, l.n);
+			l.n--;
+		}
+	}
+
+	private void borrowFromRight(Inner parent, int c, Node p, Node right) {
+		if (p instanceof Leaf) {
+			Leaf leaf = (Leaf) p;
+			Leaf r = (Leaf) right;
+			leaf.insertAt(leaf.n, r.keys[0], r.values[0]);
+			r.removeAt(0);
+			parent.keys[c] = r.keys[0];
+		} else {
+			Inner inner = (Inner) p;
+			Inner r = (Inner) right;
+			inner.keys[inner.n] = parent.keys[c];
+			inner.children[inner.n + 1] = r.children[0];
+			inner.n++;
+			parent.keys[c] = r.keys[0];
+			System.arraycopy(r.keys, 1, r.keys, 0, r.n - 1);
+			System.arraycopy(r.children, 1, r.children, 0, r.n);
+			r.clear(r.n - 1, r.n);
+			r.n--;
+		}
+	}
+
+	/**
+	 * Appends right to its left sibling left and removes separator s from parent.
+	 */
+	private void merge(Inner parent, int s, Node left, Node right) {
+		if (left instanceof Leaf) {
+			Leaf l = (Leaf) left;
+			Leaf r = (Leaf) right;
+			System.arraycopy(r.keys, 0, l.keys, l.n, r.n);
+			System.arraycopy(r.values, 0, l.values, l.n, r.n);
+			l.n += r.n;
+			l.next = r.next;
+		} else {
+			Inner l = (Inner) left;
+			Inner r = (Inner) right;
+			l.keys[l.n] = parent.keys[s];
+			System.arraycopy(r.keys, 0, l.keys, l.n + 1, r.n);
+			System.arraycopy(r.children, 0, l.children, l.n + 1, r.n + 1);
+			l.n += 1 + r.n;
+		}
+		parent.removeAt(s);
+	}
+
+	/**
+	 * Binary search for key in the leaf.
+	 * @return the index of key, or -(insertion point) - 1.
+	 */
+	private int indexOf(Leaf leaf, K key) {
+		return binarySearch(leaf.keys, leaf.n, key);
+	}
+
+	/**
+	 * Returns the index of the child of inner whose subtree may contain key.
+	 */
+	private int childIndexOf(Inner inner, K key) {
+		int i = binarySearch(inner.keys, inner.n, key);
+		return (i >= 0) ? i + 1 : -i - 1;
+	}
+
+	private int binarySearch(Object[] keys, int n, K key) {
+		int li = 0;
+		int re = n - 1;
+		while (li <= re) {
+			int m = (li + re) >>> 1;
+			@SuppressWarnings("unchecked")
+			int c = key.compareTo((K) keys[m]);
+			if (c > 0)
+				li = m + 1;
+			else if (c < 0)
+				re = m - 1;
+			else
+				return m;
+		}
+		return -li - 1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Entry<K, V> entryAt(Leaf leaf, int i) {
+		return new Entry<K, V>((K) leaf.keys[i], (V) leaf.values[i]);
+	}
+
+	/**
+	 * Walks the leaf chain from position index of leaf up to the key to (exclusive).
+	 */
+	private class LeafIterator implements Iterator<Entry<K, V>> {
+		private final K to;
+		private Leaf leaf;
+		private int index;
+
+		LeafIterator(Leaf leaf, int index, K to) {
+			this.leaf = leaf;
+			this.index = index;
+			this.to = to;
+			skipExhaustedLeaves();
+		}
+
+		private void skipExhaustedLeaves() {
+			while (leaf != null && index >= leaf.n) {
+				leaf = leaf.next;
+				index = 0;
+			}
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public boolean hasNext() {
+			return leaf != null && (to == null || ((K) leaf.keys[index]).compareTo(to) < 0);
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Entry<K, V> entry = entryAt(leaf, index++);
+			skipExhaustedLeaves();
+			return entry;
+		}
+	}
+
+	private abstract static class Node {
+		// One slot more than the fanout, so that a node can overflow before it is split
+		final Object[] keys;
+		int n;
+
+		Node(int maxKeys) {
+			this.keys = new Object[maxKeys + 1];
+		}
+	}
+
+	private static class Leaf extends Node {
+		final Object[] values;
+		Leaf next;
+
+		Leaf(int maxKeys) {
+			super(maxKeys);
+			this.values = new Object[maxKeys + 1];
+		}
+
+		void insertAt(int i, Object key, Object value) {
+			System.arraycopy(keys, i, keys, i + 1, n - i);
+			System.arraycopy(values, i, values, i + 1, n - i);
+			keys[i] = key;
+			values[i] = value;
+			n++;
+		}
+
+		void removeAt(int i) {
+			System.arraycopy(keys, i + 1, keys, i, n - i - 1);
+			System.arraycopy(values, i + 1, values, i, n - i - 1);
+			n--;
+			keys[n] = null;
+			values[n] = null;
+		}
+
+		void clear(int from, int to) {
+			for (int i = from; i < to; i++) {
+				keys[i] = null;
+				values[i] = null;
+			}
+		}
+	}
+
+	private static class Inner extends Node {
+		final Node[] children;
+
+		Inner(int maxKeys) {
+			super(maxKeys);
+			this.children = new Node[maxKeys + 2];
+		}
+
+		/**
+		 * Inserts key at position i and child right of it.
+		 */
+		void insertAt(int i, Object key, Node child) {
+			System.arraycopy(keys, i, keys, i + 1, n - i);
+			System.arraycopy(children, i + 1, children, i + 2, n - i);
+			keys[i] = key;
+			children[i + 1] = child;
+			n++;
+		}
+
+		/**
+		 * Removes key i and the child right of it.
+		 */
+		void removeAt(int i) {
+			System.arraycopy(keys, i + 1, keys, i, n - i - 1);
+			System.arraycopy(children, i + 2, children, i + 1, n - i - 1);
+			keys[n - 1] = null;
+			children[n] = null;
+			n--;
+		}
+
+		/**
+		 * Clears keys from..to-1 and the children right of them.
+		 */
+		void clear(int from, int to) {
+			for (int i = from; i < to; i++) {
+				keys[i] = null;
+				children[i + 1] = null;
+			}
+		}
+	}
+}
@@ -1,108 +1,213 @@
 package dictionary;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
-public class BinaryTreeDictionary<K extends Comparable<? super K>, V> implements Dictionary<K, V> {
+public class BinaryTreeDictionary<K extends Comparable<? super K>, V> implements OrderedDictionary<K, V> {
 
 	private Node<K, V> root;
-	private V oldValue;
 	private int size;
+	// Event counters for stats(), null while counting is disabled
+	private DictionaryStats.Counters counters;
 
-	@Override
-	public V insert(K key, V value) {
-		this.root = insertR(key, value, root);
-		if (root != null)
-			root.parent = null;
-		return this.oldValue;
+	/**
+	 * Builds a perfectly balanced tree in O(n) from entries with strictly ascending keys.
+	 * @param sorted iterator over the entries in ascending key order
+	 * @param n number of entries to take from sorted
+	 * @return a new dictionary containing the n entries
+	 * @throws IllegalArgumentException if sorted delivers fewer than n entries
+	 * or the keys are not strictly ascending.
+	 */
+	public static <K extends Comparable<? super K>, V> BinaryTreeDictionary<K, V> fromSorted(
+			Iterator<? extends Entry<K, V>> sorted, int n) {
+		BinaryTreeDictionary<K, V> dict = new BinaryTreeDictionary<>();
+		dict.root = dict.buildR(sorted, n);
+		dict.size = n;
+		K last = null;
+		for (Entry<K, V> e : dict) {
+			if (last != null && last.compareTo(e.getKey()) >= 0)
+				throw new IllegalArgumentException("Keys are not strictly ascending: " + last + ", " + e.getKey());
+			last = e.getKey();
+		}
+		return dict;
 	}
 
-	private Node<K, V> insertR(K key, V value, Node<K, V> p) {
-		if (p == null) {
-			p = new Node<K, V>(new Entry<K, V>(key, value), null, null);
-			size++;
-			oldValue = null;
-		} else if (key.compareTo(p.entry.getKey()) < 0) {
-			p.left = insertR(key, value, p.left);
-			if (p.left != null)
-				p.left.parent = p;
-		} else if (key.compareTo(p.entry.getKey()) > 0) {
-			p.right = insertR(key, value, p.right);
-			if (p.right != null)
-				p.right.parent = p;
-		} else {
-			// Schlssel bereits vorhanden:
-			oldValue = p.entry.getValue();
-			p.entry.setValue(value);
+	/**
+	 * Merges two dictionaries in O(n + m) by flattening both in order
+	 * and building a balanced tree from the merged sequence.
+	 * If a key is contained in both dictionaries, the entry of b wins.
+	 * @param a first dictionary
+	 * @param b second dictionary
+	 * @return a new dictionary containing the entries of a and b
+	 */
+	public static <K extends Comparable<? super K>, V> BinaryTreeDictionary<K, V> merge(BinaryTreeDictionary<K, V> a,
+			BinaryTreeDictionary<K, V> b) {
+		List<Entry<K, V>> merged = new ArrayList<>(a.size() + b.size());
+		Iterator<Entry<K, V>> ia = a.iterator();
+		Iterator<Entry<K, V>> ib = b.iterator();
+		Entry<K, V> ea = ia.hasNext() ? ia.next() : null;
+		Entry<K, V> eb = ib.hasNext() ? ib.next() : null;
+		while (ea != null || eb != null) {
+			int c = (ea == null) ? 1 : (eb == null) ? -1 : ea.getKey().compareTo(eb.getKey());
+			if (c < 0) {
+				merged.add(ea);
+			} else {
+				merged.add(eb);
+				eb = ib.hasNext() ? ib.next() : null;
+			}
+			if (c <= 0)
+				ea = ia.hasNext() ? ia.next() : null;
 		}
+		return fromSorted(merged.iterator(), merged.size());
+	}
 
-		p = balance(p);
+	private Node<K, V> buildR(Iterator<? extends Entry<K, V>> sorted, int n) {
+		if (n == 0)
+			return null;
+		int nLeft = (n - 1) / 2;
+		Node<K, V> left = buildR(sorted, nLeft);
+		if (!sorted.hasNext())
+			throw new IllegalArgumentException("Fewer entries than specified");
+		Entry<K, V> e = sorted.next();
+		Node<K, V> p = new Node<K, V>(e.getKey(), e.getValue(), null);
+		p.left = left;
+		p.right = buildR(sorted, n - 1 - nLeft);
+		if (p.left != null)
+			p.left.parent = p;
+		if (p.right != null)
+			p.right.parent = p;
+		p.height = Math.max(getHeight(p.left), getHeight(p.right)) + 1;
 		return p;
 	}
 
+	/**
+	 * Descends iteratively and links the new node as a leaf; the new node
+	 * is the only allocation. Rebalancing then walks up the parent links.
+	 */
 	@Override
-	public V search(K key) {
-		return searchR(key, root);
-	}
-
-	private V searchR(K key, Node<K, V> p) {
-		if (p == null)
-			return null;
-		else if (key.compareTo(p.entry.getKey()) < 0)
-			return searchR(key, p.left);
-		else if (key.compareTo(p.entry.getKey()) > 0)
-			return searchR(key, p.right);
+	public V insert(K key, V value) {
+		Node<K, V> parent = null;
+		Node<K, V> p = root;
+		int c = 0;
+		while (p != null) {
+			c = key.compareTo(p.getKey());
+			if (c == 0)
+				// Schlssel bereits vorhanden:
+				return p.setValue(value);
+			parent = p;
+			p = (c < 0) ? p.left : p.right;
+		}
+		Node<K, V> node = new Node<K, V>(key, value, parent);
+		if (parent == null)
+			root = node;
+		else if (c < 0)
+			parent.left = node;
 		else
-			return p.entry.getValue();
+			parent.right = node;
+		size++;
+		if (counters != null)
+			counters.inserts++;
+		rebalanceUpwards(parent);
+		return null;
 	}
 
 	@Override
-	public V remove(K key) {
-		root = removeR(key, root);
-		return oldValue;
+	public V search(K key) {
+		Node<K, V> p = root;
+		while (p != null) {
+			int c = key.compareTo(p.getKey());
+			if (c == 0)
+				return p.getValue();
+			p = (c < 0) ? p.left : p.right;
+		}
+		return null;
 	}
 
-	private Node<K, V> removeR(K key, Node<K, V> p) {
-		if (p == null) {
-			oldValue = null;
-		} else if (key.compareTo(p.entry.getKey()) < 0)
-			p.left = removeR(key, p.left);
-		else if (key.compareTo(p.entry.getKey()) > 0)
-			p.right = removeR(key, p.right);
-		else if (p.left == null || p.right == null) {
-			// p muss gelscht werden
-			// und hat ein oder kein Kind:
-			oldValue = p.entry.getValue();
-			p = (p.left != null) ? p.left : p.right;
-			size--;
+	/**
+	 * A node with two children is replaced by its successor node, which is
+	 * relinked into its place; no node or entry is copied.
+	 */
+	@Override
+	public V remove(K key) {
+		Node<K, V> p = root;
+		while (p != null) {
+			int c = key.compareTo(p.getKey());
+			if (c == 0)
+				break;
+			p = (c < 0) ? p.left : p.right;
+		}
+		if (p == null)
+			return null;
+		// Tiefster Knoten, dessen Teilbaum sich verndert hat
+		Node<K, V> start;
+		if (p.left == null || p.right == null) {
+			// p hat ein oder kein Kind:
+			Node<K, V> child = (p.left != null) ? p.left : p.right;
+			if (child != null)
+				child.parent = p.parent;
+			replaceChild(p.parent, p, child);
+			start = p.parent;
 		} else {
-			// p muss gelscht werden und hat zwei Kinder:
-			MinEntry<K, V> min = new MinEntry<K, V>();
-			oldValue = p.entry.getValue();
-			p.right = getRemMinR(p.right, min);
-			oldValue = p.entry.getValue();
-			p = new Node<>(new Entry<K, V>(min.key, min.value), p.left, p.right);
-			size--;
+			// p hat zwei Kinder: der Nachfolger q nimmt den Platz von p ein
+			Node<K, V> q = leftMostDescendant(p.right);
+			if (q.parent == p) {
+				start = q;
+			} else {
+				start = q.parent;
+				q.parent.left = q.right;
+				if (q.right != null)
+					q.right.parent = q.parent;
+				q.right = p.right;
+				p.right.parent = q;
+			}
+			q.left = p.left;
+			p.left.parent = q;
+			q.parent = p.parent;
+			replaceChild(p.parent, p, q);
+			// Die alte Hhe an dieser Stelle, damit rebalanceUpwards nderungen erkennt
+			q.height = p.height;
 		}
-		p = balance(p);
-		return p;
+		size--;
+		rebalanceUpwards(start);
+		return p.getValue();
 	}
 
-	private Node<K, V> getRemMinR(Node<K, V> p, MinEntry<K, V> min) {
-		assert p != null;
-		if (p.left == null) {
-			min.key = p.entry.getKey();
-			min.value = p.entry.getValue();
-			p = p.right;
-		} else
-			p.left = getRemMinR(p.left, min);
+	@Override
+	public int size() {
+		return this.size;
+	}
 
-		p = balance(p);
-		return p;
+	/**
+	 * The histogram counts the nodes per depth (the root has depth 0).
+	 */
+	@Override
+	public DictionaryStats stats() {
+		long[] histogram = new long[getHeight(root) + 1];
+		List<Node<K, V>> level = new ArrayList<>();
+		if (root != null)
+			level.add(root);
+		for (int depth = 0; !level.isEmpty(); depth++) {
+			histogram[depth] = level.size();
+			List<Node<K, V>> next = new ArrayList<>(2 * level.size());
+			for (Node<K, V> p : level) {
+				if (p.left != null)
+					next.add(p.left);
+				if (p.right != null)
+					next.add(p.right);
+			}
+			level = next;
+		}
+		return new DictionaryStats(size, Double.NaN, "depth", histogram, getHeight(root) + 1, -1, true, counters);
 	}
 
 	@Override
-	public int size() {
-		return this.size;
+	public void setStatsEnabled(boolean enabled) {
+		counters = enabled ? new DictionaryStats.Counters() : null;
 	}
 
 	/**
@@ -117,8 +222,8 @@ public class BinaryTreeDictionary<K extends Comparable<? super K>, V> implements
 		if (p == null) {
 			System.out.println("#");
 		} else {
-			System.out.println(p.entry.getKey() + " " + p.entry.getValue() + "^"
-					+ ((p.parent == null) ? "null" : p.parent.entry.getKey().toString()));
+			System.out.println(p.getKey() + " " + p.getValue() + "^"
+					+ ((p.parent == null) ? "null" : p.parent.getKey().toString()));
 			if (p.left != null || p.right != null) {
 				printR(level + 1, p.left);
 				printR(level + 1, p.right);
@@ -150,20 +255,49 @@ public class BinaryTreeDictionary<K extends Comparable<? super K>, V> implements
 			return getHeight(p.right) - getHeight(p.left);
 	}
 
+	/**
+	 * Restores the AVL condition from p up to the root. Stops as soon as a
+	 * subtree has kept its previous height, since nothing above it changes
+	 * then.
+	 */
+	private void rebalanceUpwards(Node<K, V> p) {
+		while (p != null) {
+			int oldHeight = p.height;
+			p = balance(p);
+			if (p.height == oldHeight)
+				return;
+			p = p.parent;
+		}
+	}
+
+	/**
+	 * Updates the height of p and rotates if p is out of balance.
+	 * @return the root of the subtree that was rooted at p
+	 */
 	private Node<K, V> balance(Node<K, V> p) {
-		if (p == null)
-			return null;
-		p.height = Math.max(getHeight(p.left), getHeight(p.right)) + 1;
+		updateHeight(p);
 		if (getBalance(p) == -2) {
-			if (getBalance(p.left) <= 0)
+			if (getBalance(p.left) <= 0) {
+				p = rotateRight(p);
+				if (counters != null)
+					counters.rightRotations++;
+			} else {
+				rotateLeft(p.left);
 				p = rotateRight(p);
-			else
-				p = rotateLeftRight(p);
+				if (counters != null)
+					counters.leftRightRotations++;
+			}
 		} else if (getBalance(p) == +2) {
-			if (getBalance(p.right) >= 0)
+			if (getBalance(p.right) >= 0) {
+				p = rotateLeft(p);
+				if (counters != null)
+					counters.leftRotations++;
+			} else {
+				rotateRight(p.right);
 				p = rotateLeft(p);
-			else
-				p = rotateRightLeft(p);
+				if (counters != null)
+					counters.rightLeftRotations++;
+			}
 		}
 		return p;
 	}
@@ -172,17 +306,14 @@ public class BinaryTreeDictionary<K extends Comparable<? super K>, V> implements
 		assert p.left != null;
 		Node<K, V> q = p.left;
 		p.left = q.right;
-
 		if (p.left != null)
 			p.left.parent = p;
-
+		q.parent = p.parent;
+		replaceChild(p.parent, p, q);
 		q.right = p;
-
-		if (q.right != null)
-			q.right.parent = q;
-
-		p.height = Math.max(getHeight(p.left), getHeight(p.right)) + 1;
-		q.height = Math.max(getHeight(q.left), getHeight(q.right)) + 1;
+		p.parent = q;
+		updateHeight(p);
+		updateHeight(q);
 		return q;
 	}
 
@@ -190,31 +321,31 @@ public class BinaryTreeDictionary<K extends Comparable<? super K>, V> implements
 		assert p.right != null;
 		Node<K, V> q = p.right;
 		p.right = q.left;
-
 		if (p.right != null)
 			p.right.parent = p;
-
+		q.parent = p.parent;
+		replaceChild(p.parent, p, q);
 		q.left = p;
-
-		if (q.left != null)
-			q.left.parent = q;
-
-		p.height = Math.max(getHeight(p.right), getHeight(p.left)) + 1;
-		q.height = Math.max(getHeight(q.right), getHeight(q.left)) + 1;
+		p.parent = q;
+		updateHeight(p);
+		updateHeight(q);
 		return q;
-
 	}
 
-	private Node<K, V> rotateLeftRight(Node<K, V> p) {
-		assert p.left != null;
-		p.left = rotateLeft(p.left);
-		return rotateRight(p);
+	private void updateHeight(Node<K, V> p) {
+		p.height = Math.max(getHeight(p.left), getHeight(p.right)) + 1;
 	}
 
-	private Node<K, V> rotateRightLeft(Node<K, V> p) {
-		assert p.right != null;
-		p.right = rotateRight(p.right);
-		return rotateLeft(p);
+	/**
+	 * Links child in place of old below parent, or as root if parent is null.
+	 */
+	private void replaceChild(Node<K, V> parent, Node<K, V> old, Node<K, V> child) {
+		if (parent == null)
+			root = child;
+		else if (parent.left == old)
+			parent.left = child;
+		else
+			parent.right = child;
 	}
 
 	@Override
@@ -232,49 +363,203 @@ public class BinaryTreeDictionary<K extends Comparable<? super K>, V> implements
 			public Entry<K, V> next() {
 				if (this.currentNode == null)
 					this.currentNode = leftMostDescendant(root);
-				else if (this.currentNode.right != null)
-					this.currentNode = leftMostDescendant(this.currentNode.right);
 				else
-					this.currentNode = parentOfLeftMostAncestor(this.currentNode);
+					this.currentNode = successor(this.currentNode);
 				this.currentCounter++;
-				return this.currentNode.entry;
+				return this.currentNode;
 			}
+		};
+	}
+
+	@Override
+	public Entry<K, V> first() {
+		return (root == null) ? null : leftMostDescendant(root);
+	}
+
+	@Override
+	public Entry<K, V> last() {
+		if (root == null)
+			return null;
+		Node<K, V> p = root;
+		while (p.right != null)
+			p = p.right;
+		return p;
+	}
 
-			private Node<K, V> leftMostDescendant(Node<K, V> p) {
-				assert p != null;
-				while (p.left != null)
-					p = p.left;
+	@Override
+	public Entry<K, V> floor(K key) {
+		Node<K, V> p = root;
+		Node<K, V> best = null;
+		while (p != null) {
+			int c = key.compareTo(p.getKey());
+			if (c == 0)
 				return p;
+			if (c < 0) {
+				p = p.left;
+			} else {
+				best = p;
+				p = p.right;
 			}
+		}
+		return best;
+	}
+
+	@Override
+	public Entry<K, V> ceiling(K key) {
+		Node<K, V> p = ceilingNode(key);
+		return p;
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> range(K from, K to) {
+		return new Iterator<Dictionary.Entry<K, V>>() {
+			Node<K, V> nextNode = ceilingNode(from);
 
-			private Node<K, V> parentOfLeftMostAncestor(Node<K, V> p) {
-				assert p != null;
-				while (p.parent != null && p.parent.right == p)
-					p = p.parent;
-				return p.parent; // kann auch null sein
+			@Override
+			public boolean hasNext() {
+				return nextNode != null && nextNode.getKey().compareTo(to) < 0;
+			}
+
+			@Override
+			public Entry<K, V> next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				Node<K, V> entry = nextNode;
+				nextNode = successor(nextNode);
+				return entry;
 			}
 		};
 	}
 
-	@SuppressWarnings("hiding")
-	private class Node<K extends Comparable<? super K>, V> {
-		Entry<K, V> entry;
+	/**
+	 * Splits by subtree: the first split separates the left subtree of the
+	 * root (together with the nodes before it) from the rest, further splits
+	 * continue in the subtrees. Since the tree is balanced, the halves are of
+	 * about equal size; only the unsplit spliterator is SIZED.
+	 */
+	@Override
+	public Spliterator<Entry<K, V>> spliterator() {
+		return new SubtreeSpliterator((root == null) ? null : leftMostDescendant(root), null, 0, size);
+	}
+
+	/**
+	 * Spliterator over the nodes from current (inclusive) to fence (exclusive,
+	 * null = up to the end) in order. side is 0 before the first split, -1 for
+	 * a part split off in front of a subtree root (fence) and 1 for the part
+	 * starting at a subtree root (current).
+	 */
+	private final class SubtreeSpliterator implements Spliterator<Entry<K, V>> {
+		private Node<K, V> current;
+		private final Node<K, V> fence;
+		private int side;
+		private long est;
+
+		SubtreeSpliterator(Node<K, V> current, Node<K, V> fence, int side, long est) {
+			this.current = current;
+			this.fence = fence;
+			this.side = side;
+			this.est = est;
+		}
+
+		@Override
+		public Spliterator<Entry<K, V>> trySplit() {
+			Node<K, V> e = current;
+			if (e == null || e == fence)
+				return null;
+			// Wurzel des Teilbaums, an dem geteilt wird
+			Node<K, V> s = (side == 0) ? root : (side > 0) ? e.right : (fence != null) ? fence.left : null;
+			if (s == null || s == e || s == fence || e.getKey().compareTo(s.getKey()) >= 0)
+				return null;
+			side = 1;
+			est >>>= 1;
+			current = s;
+			return new SubtreeSpliterator(e, s, -1, est);
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+			Node<K, V> e = current;
+			if (e == null || e == fence)
+				return false;
+			current = successor(e);
+			action.accept(e);
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+			Node<K, V> e = current;
+			current = fence;
+			for (; e != null && e != fence; e = successor(e))
+				action.accept(e);
+		}
+
+		@Override
+		public long estimateSize() {
+			return est;
+		}
+
+		@Override
+		public int characteristics() {
+			return (side == 0 ? Spliterator.SIZED : 0) | Spliterator.ORDERED | Spliterator.SORTED
+					| Spliterator.DISTINCT | Spliterator.NONNULL;
+		}
+
+		@Override
+		public Comparator<? super Entry<K, V>> getComparator() {
+			return OrderedDictionary.entryOrder();
+		}
+	}
+
+	private Node<K, V> ceilingNode(K key) {
+		Node<K, V> p = root;
+		Node<K, V> best = null;
+		while (p != null) {
+			int c = key.compareTo(p.getKey());
+			if (c == 0)
+				return p;
+			if (c < 0) {
+				best = p;
+				p = p.left;
+			} else {
+				p = p.right;
+			}
+		}
+		return best;
+	}
+
+	private Node<K, V> successor(Node<K, V> p) {
+		if (p.right != null)
+			return leftMostDescendant(p.right);
+		return parentOfLeftMostAncestor(p);
+	}
+
+	private Node<K, V> leftMostDescendant(Node<K, V> p) {
+		assert p != null;
+		while (p.left != null)
+			p = p.left;
+		return p;
+	}
+
+	private Node<K, V> parentOfLeftMostAncestor(Node<K, V> p) {
+		assert p != null;
+		while (p.parent != null && p.parent.right == p)
+			p = p.parent;
+		return p.parent; // kann auch null sein
+	}
+
+	/**
+	 * Tree node; the node itself is the dictionary entry.
+	 */
+	private static class Node<K, V> extends Entry<K, V> {
 		Node<K, V> parent;
 		Node<K, V> left;
 		Node<K, V> right;
 		int height;
 
-		public Node(Entry<K, V> entry, Node<K, V> left, Node<K, V> right) {
-			this.entry = entry;
-			this.left = left;
-			this.right = right;
-			this.parent = null;
-			this.height = 0;
+		Node(K key, V value, Node<K, V> parent) {
+			super(key, value);
+			this.parent = parent;
 		}
 	}
-
-	private static class MinEntry<K, V> {
-		private K key;
-		private V value;
-	}
 }
@@ -0,0 +1,175 @@
+package dictionary;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Puts a blocked Bloom filter in front of any dictionary, so that most
+ * searches for absent keys are answered without touching the dictionary.
+ * <p>
+ * Each key sets PROBES bits within one 512-bit block (one cache line), so a
+ * lookup costs a single cache miss at most. The filter has no false
+ * negatives; its false positive rate is at most about 1 % at the default
+ * of 10 bits per key. Inserts add the key to the filter. Removes cannot clear
+ * bits, so the filter is rebuilt from the dictionary once more keys have
+ * been removed than remain, and it is rebuilt with twice the capacity once
+ * the dictionary outgrows it.
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public class BloomFilterDictionary<K, V> implements Dictionary<K, V> {
+
+	private static final int DEFAULT_BITS_PER_KEY = 10;
+	private static final int MIN_CAPACITY = 64;
+	private static final int BLOCK_LONGS = 8;
+	private static final int PROBES = 6;
+	private static final long SEED = 0x9e3779b97f4a7c15L;
+
+	private final Dictionary<K, V> dict;
+	private final int bitsPerKey;
+	private long[] bits;
+	private int blocks;
+	// Number of keys the filter is sized for
+	private int capacity;
+	private int removedSinceRebuild;
+
+	public BloomFilterDictionary(Dictionary<K, V> dict) {
+		this(dict, DEFAULT_BITS_PER_KEY);
+	}
+
+	/**
+	 * @param dict dictionary to be filtered; may already contain entries
+	 * @param bitsPerKey filter bits per key (more bits, fewer false positives)
+	 */
+	public BloomFilterDictionary(Dictionary<K, V> dict, int bitsPerKey) {
+		if (bitsPerKey < 1)
+			throw new IllegalArgumentException("bitsPerKey must be positive: " + bitsPerKey);
+		this.dict = dict;
+		this.bitsPerKey = bitsPerKey;
+		rebuild(dict.size());
+	}
+
+	@Override
+	public V insert(K key, V value) {
+		V r = dict.insert(key, value);
+		add(key);
+		if (dict.size() > capacity)
+			rebuild(2 * dict.size());
+		return r;
+	}
+
+	/**
+	 * Delegates to the bulk load of the wrapped dictionary and adds all keys
+	 * to the filter afterwards. The entries are copied first, since an
+	 * Iterable may deliver them only once.
+	 */
+	@Override
+	public void insertAll(Iterable<? extends Entry<K, V>> entries) {
+		List<Entry<K, V>> list = new ArrayList<>();
+		for (Entry<K, V> e : entries)
+			list.add(e);
+		dict.insertAll(list);
+		if (dict.size() > capacity) {
+			rebuild(2 * dict.size());
+		} else {
+			for (Entry<K, V> e : list)
+				add(e.getKey());
+		}
+	}
+
+	@Override
+	public V search(K key) {
+		if (!mightContain(key))
+			return null;
+		return dict.search(key);
+	}
+
+	@Override
+	public V remove(K key) {
+		if (!mightContain(key))
+			return null;
+		V r = dict.remove(key);
+		if (r != null && ++removedSinceRebuild > dict.size())
+			rebuild(dict.size());
+		return r;
+	}
+
+	@Override
+	public int size() {
+		return dict.size();
+	}
+
+	@Override
+	public DictionaryStats stats() {
+		return dict.stats();
+	}
+
+	@Override
+	public void setStatsEnabled(boolean enabled) {
+		dict.setStatsEnabled(enabled);
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> iterator() {
+		return dict.iterator();
+	}
+
+	/**
+	 * Returns false if key is certainly not contained in the dictionary.
+	 * @param key key to be tested
+	 * @return false if key is absent, true if it may be present.
+	 */
+	public boolean mightContain(K key) {
+		long h = mix(key.hashCode() + SEED);
+		int base = blockOf(h) * BLOCK_LONGS;
+		for (int i = 0; i < PROBES; i++, h >>>= 9) {
+			int bit = (int) h & 511;
+			if ((bits[base + (bit >>> 6)] & (1L << bit)) == 0)
+				return false;
+		}
+		return true;
+	}
+
+	private void add(K key) {
+		long h = mix(key.hashCode() + SEED);
+		int base = blockOf(h) * BLOCK_LONGS;
+		for (int i = 0; i < PROBES; i++, h >>>= 9) {
+			int bit = (int) h & 511;
+			bits[base + (bit >>> 6)] |= 1L << bit;
+		}
+	}
+
+	/**
+	 * Allocates a filter for capacity keys and adds all keys of the dictionary.
+	 */
+	private void rebuild(int capacity) {
+		this.capacity = Math.max(MIN_CAPACITY, capacity);
+		long totalBits = (long) this.capacity * bitsPerKey;
+		this.blocks = (int) Math.min(Integer.MAX_VALUE / BLOCK_LONGS, (totalBits + 511) / 512);
+		this.bits = new long[blocks * BLOCK_LONGS];
+		this.removedSinceRebuild = 0;
+		for (Entry<K, V> e : dict)
+			add(e.getKey());
+	}
+
+	/**
+	 * Selects the block by a second mix of h (multiply-shift), so that the
+	 * block does not depend on the 54 bits used for the probes.
+	 */
+	private int blockOf(long h) {
+		return (int) (((mix(h) >>> 32) * blocks) >>> 32);
+	}
+
+	/**
+	 * 64-bit finalizer of MurmurHash3: spreads every input bit over all output bits.
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
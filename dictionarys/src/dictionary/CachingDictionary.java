@@ -0,0 +1,351 @@
+package dictionary;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory cache in front of a slow backing dictionary
+ * (W-TinyLFU, Einziger, Friedman, Manes: TinyLFU: A Highly Efficient Cache
+ * Admission Policy).
+ * <ul>
+ * <li>New entries enter a small LRU window (1 % of the capacity), which
+ * absorbs bursts of keys that are used only once.</li>
+ * <li>The main area is a segmented LRU: probation and protected (80 %).
+ * A hit in probation promotes the entry to protected; protected overflow
+ * is demoted back to probation.</li>
+ * <li>An entry leaving the window replaces the probation LRU victim only if
+ * its estimated access frequency is higher. Frequencies are estimated by a
+ * count-min sketch over all searches, hits and misses, whose 4-bit counters
+ * are halved periodically so that old popularity fades.</li>
+ * </ul>
+ * Writes go through to the backing dictionary. The cache structures are
+ * guarded by the monitor of this object; the backing dictionary is
+ * accessed outside of it, so concurrent misses load in parallel. The
+ * backing dictionary must therefore be thread-safe if the cache is used
+ * concurrently (see SynchronizedDictionary). Only found entries are cached.
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public class CachingDictionary<K, V> implements Dictionary<K, V> {
+
+	private static final byte WINDOW = 0;
+	private static final byte PROBATION = 1;
+	private static final byte PROTECTED = 2;
+
+	private final Dictionary<K, V> backing;
+	private final int windowMax;
+	private final int mainMax;
+	private final int protectedMax;
+
+	private final Map<K, Node<K, V>> cache = new HashMap<>();
+	// Sentinels of the three LRU lists: head.next is the least recently used entry
+	private final Node<K, V> window = new Node<K, V>(null, null);
+	private final Node<K, V> probation = new Node<K, V>(null, null);
+	private final Node<K, V> protectedList = new Node<K, V>(null, null);
+	private int windowSize;
+	private int probationSize;
+	private int protectedSize;
+	private final FrequencySketch sketch;
+
+	// Serializes writes to the backing dictionary with the matching cache update
+	private final Object writeLock = new Object();
+	// Incremented by every write; a load that overlapped a write is not cached
+	private long writeCount;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param backing dictionary holding all entries
+	 * @param maximumSize maximum number of cached entries
+	 */
+	public CachingDictionary(Dictionary<K, V> backing, int maximumSize) {
+		if (maximumSize < 1)
+			throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+		this.backing = backing;
+		this.windowMax = Math.max(1, maximumSize / 100);
+		this.protectedMax = (maximumSize - windowMax) * 8 / 10;
+		this.sketch = new FrequencySketch(maximumSize);
+		this.mainMax = maximumSize - windowMax;
+		window.prev = window.next = window;
+		probation.prev = probation.next = probation;
+		protectedList.prev = protectedList.next = protectedList;
+	}
+
+	@Override
+	public V insert(K key, V value) {
+		synchronized (writeLock) {
+			V r = backing.insert(key, value);
+			synchronized (this) {
+				writeCount++;
+				Node<K, V> node = cache.get(key);
+				if (node != null)
+					node.value = value;
+				else
+					admit(key, value);
+			}
+			return r;
+		}
+	}
+
+	@Override
+	public V search(K key) {
+		long writesBefore;
+		synchronized (this) {
+			sketch.increment(key.hashCode());
+			Node<K, V> node = cache.get(key);
+			if (node != null) {
+				hits.increment();
+				onHit(node);
+				return node.value;
+			}
+			writesBefore = writeCount;
+		}
+		misses.increment();
+		V value = backing.search(key);
+		if (value != null) {
+			synchronized (this) {
+				if (writeCount == writesBefore && !cache.containsKey(key))
+					admit(key, value);
+			}
+		}
+		return value;
+	}
+
+	@Override
+	public V remove(K key) {
+		synchronized (writeLock) {
+			V r = backing.remove(key);
+			synchronized (this) {
+				writeCount++;
+				Node<K, V> node = cache.remove(key);
+				if (node != null)
+					unlink(node);
+			}
+			return r;
+		}
+	}
+
+	@Override
+	public int size() {
+		return backing.size();
+	}
+
+	/**
+	 * Reports the backing dictionary; the cache has its own counters
+	 * (hitCount, missCount, evictionCount).
+	 */
+	@Override
+	public DictionaryStats stats() {
+		return backing.stats();
+	}
+
+	@Override
+	public void setStatsEnabled(boolean enabled) {
+		backing.setStatsEnabled(enabled);
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> iterator() {
+		return backing.iterator();
+	}
+
+	/**
+	 * @return number of searches answered from the cache
+	 */
+	public long hitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of searches passed on to the backing dictionary
+	 */
+	public long missCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of entries dropped from the cache because of its size limit
+	 */
+	public long evictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return number of currently cached entries
+	 */
+	public synchronized int cachedSize() {
+		return cache.size();
+	}
+
+	private void onHit(Node<K, V> node) {
+		switch (node.queue) {
+		case WINDOW:
+			moveToTail(node, window);
+			break;
+		case PROBATION:
+			unlink(node);
+			node.queue = PROTECTED;
+			linkLast(node, protectedList);
+			if (protectedSize > protectedMax) {
+				Node<K, V> demoted = protectedList.next;
+				unlink(demoted);
+				demoted.queue = PROBATION;
+				linkLast(demoted, probation);
+			}
+			break;
+		default:
+			moveToTail(node, protectedList);
+			break;
+		}
+	}
+
+	/**
+	 * Adds a new entry to the window. An entry pushed out of the window
+	 * competes with the probation victim for a place in the main area.
+	 */
+	private void admit(K key, V value) {
+		Node<K, V> node = new Node<K, V>(key, value);
+		cache.put(key, node);
+		node.queue = WINDOW;
+		linkLast(node, window);
+		if (windowSize <= windowMax)
+			return;
+		Node<K, V> candidate = window.next;
+		unlink(candidate);
+		candidate.queue = PROBATION;
+		if (probationSize + protectedSize < mainMax) {
+			linkLast(candidate, probation);
+			return;
+		}
+		Node<K, V> victim = (probationSize > 0) ? probation.next : protectedList.next;
+		if (mainMax > 0 && sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())) {
+			evict(victim);
+			linkLast(candidate, probation);
+		} else {
+			cache.remove(candidate.key);
+			evictions.increment();
+		}
+	}
+
+	private void evict(Node<K, V> node) {
+		unlink(node);
+		cache.remove(node.key);
+		evictions.increment();
+	}
+
+	private void moveToTail(Node<K, V> node, Node<K, V> list) {
+		unlink(node);
+		linkLast(node, list);
+	}
+
+	private void linkLast(Node<K, V> node, Node<K, V> list) {
+		node.prev = list.prev;
+		node.next = list;
+		list.prev.next = node;
+		list.prev = node;
+		addToSize(node.queue, 1);
+	}
+
+	private void unlink(Node<K, V> node) {
+		node.prev.next = node.next;
+		node.next.prev = node.prev;
+		node.prev = node.next = null;
+		addToSize(node.queue, -1);
+	}
+
+	private void addToSize(byte queue, int delta) {
+		if (queue == WINDOW)
+			windowSize += delta;
+		else if (queue == PROBATION)
+			probationSize += delta;
+		else
+			protectedSize += delta;
+	}
+
+	private static class Node<K, V> {
+		final K key;
+		V value;
+		byte queue;
+		Node<K, V> prev;
+		Node<K, V> next;
+
+		Node(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Count-min sketch with 4 rows of 4-bit counters, 16 counters per long.
+	 * After 10 * maximumSize increments all counters are halved.
+	 */
+	private static class FrequencySketch {
+		private static final int ROWS = 4;
+		private static final long HALF_MASK = 0x7777777777777777L;
+
+		private final long[] table;
+		// Counters per row - 1 (width is a power of two)
+		private final int rowMask;
+		private final int sampleSize;
+		private int additions;
+
+		FrequencySketch(int maximumSize) {
+			int width = Integer.highestOneBit(Math.max(16, maximumSize - 1) << 1);
+			this.rowMask = width - 1;
+			this.table = new long[ROWS * width / 16];
+			this.sampleSize = 10 * maximumSize;
+		}
+
+		void increment(int hashCode) {
+			long h = spread(hashCode);
+			boolean added = false;
+			for (int row = 0; row < ROWS; row++) {
+				int counter = counterIndex(h, row);
+				int shift = (counter & 15) << 2;
+				int slot = counter >>> 4;
+				if (((table[slot] >>> shift) & 15) < 15) {
+					table[slot] += 1L << shift;
+					added = true;
+				}
+			}
+			if (added && ++additions >= sampleSize)
+				reset();
+		}
+
+		int frequency(int hashCode) {
+			long h = spread(hashCode);
+			int min = 15;
+			for (int row = 0; row < ROWS; row++) {
+				int counter = counterIndex(h, row);
+				min = Math.min(min, (int) (table[counter >>> 4] >>> ((counter & 15) << 2)) & 15);
+			}
+			return min;
+		}
+
+		/**
+		 * Halves all counters, so that the sketch follows changing popularity.
+		 */
+		private void reset() {
+			for (int i = 0; i < table.length; i++)
+				table[i] = (table[i] >>> 1) & HALF_MASK;
+			additions /= 2;
+		}
+
+		/**
+		 * Index of the counter for row, by double hashing.
+		 */
+		private int counterIndex(long h, int row) {
+			int i = ((int) h + row * (int) (h >>> 32)) & rowMask;
+			return row * (rowMask + 1) + i;
+		}
+
+		private static long spread(int hashCode) {
+			long h = hashCode * 0x9e3779b97f4a7c15L;
+			return h ^ (h >>> 29);
+		}
+	}
+}
@@ -0,0 +1,578 @@
+package dictionary;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Thread-safe hash dictionary.
+ * <ul>
+ * <li>search never locks: bins are read with acquire semantics and chain
+ * links and values are volatile.</li>
+ * <li>Writers lock only the head node of their bin; an empty bin is
+ * populated by a CAS.</li>
+ * <li>The table doubles cooperatively: every writer that runs into a bin
+ * being moved claims a range of bins and helps transferring them.</li>
+ * </ul>
+ * Keys and values must not be null. Iteration is weakly consistent and
+ * returns snapshot entries: it never throws ConcurrentModificationException
+ * and Entry.setValue does not write through.
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public class ConcurrentHashDictionary<K, V> implements Dictionary<K, V> {
+
+	private static final int DEF_CAPACITY = 16;
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+	private static final int MIN_TRANSFER_STRIDE = 16;
+	private static final int NCPU = Runtime.getRuntime().availableProcessors();
+	// Hash codes of special nodes; spread() keeps the hash of normal nodes >= 0
+	private static final int MOVED = -1;
+	private static final int RESERVED = -2;
+	private static final int HASH_BITS = 0x7fffffff;
+
+	private static final VarHandle TAB;
+	private static final VarHandle SIZE_CTL;
+
+	static {
+		try {
+			TAB = MethodHandles.arrayElementVarHandle(Node[].class);
+			SIZE_CTL = MethodHandles.lookup().findVarHandle(ConcurrentHashDictionary.class, "sizeCtl", int.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private volatile Node<K, V>[] table;
+	// Target table of the resize in progress, otherwise null
+	private volatile Node<K, V>[] nextTable;
+	// Bins [0, transferIndex) of the current resize have not been claimed yet
+	private final AtomicInteger transferIndex = new AtomicInteger();
+	// >= 0: size at which the next resize starts.
+	// < 0: resize in progress, -(1 + number of active resizing threads).
+	@SuppressWarnings("unused")
+	private volatile int sizeCtl;
+	private final LongAdder count = new LongAdder();
+	// Start of the resize in progress, for stats()
+	private volatile long resizeStart;
+	// Event counters for stats(), null while counting is disabled
+	private volatile EventCounters events;
+
+	public ConcurrentHashDictionary() {
+		this(DEF_CAPACITY);
+	}
+
+	public ConcurrentHashDictionary(int capacity) {
+		int n = DEF_CAPACITY;
+		while (n < capacity && n < MAXIMUM_CAPACITY)
+			n <<= 1;
+		this.table = newTable(n);
+		this.sizeCtl = threshold(n);
+	}
+
+	@Override
+	public V insert(K key, V value) {
+		return putVal(key, value, false);
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		return putVal(key, value, true);
+	}
+
+	@Override
+	public V search(K key) {
+		int hash = spread(key.hashCode());
+		Node<K, V>[] tab = table;
+		while (true) {
+			Node<K, V> e = tabAt(tab, (tab.length - 1) & hash);
+			if (e == null)
+				return null;
+			if (e.hash == MOVED) {
+				tab = ((Forwarding<K, V>) e).nextTable;
+				continue;
+			}
+			for (; e != null; e = e.next) {
+				if (e.hash == hash && key.equals(e.key))
+					return e.value;
+			}
+			return null;
+		}
+	}
+
+	@Override
+	public V remove(K key) {
+		int hash = spread(key.hashCode());
+		Node<K, V>[] tab = table;
+		while (true) {
+			int i = (tab.length - 1) & hash;
+			Node<K, V> f = tabAt(tab, i);
+			if (f == null)
+				return null;
+			if (f.hash == MOVED) {
+				tab = helpTransfer((Forwarding<K, V>) f);
+				continue;
+			}
+			V old = null;
+			boolean done = false;
+			synchronized (f) {
+				if (tabAt(tab, i) == f) {
+					done = true;
+					for (Node<K, V> p = f, prev = null; p != null; prev = p, p = p.next) {
+						if (p.hash == hash && key.equals(p.key)) {
+							old = p.value;
+							unlink(tab, i, prev, p);
+							break;
+						}
+					}
+				}
+			}
+			if (done) {
+				if (old != null)
+					addCount(-1);
+				return old;
+			}
+		}
+	}
+
+	/**
+	 * Replaces the value of key by f(key, oldValue) atomically, where
+	 * oldValue is null if key is not contained. If f returns null, the entry
+	 * is removed. f runs while the bin of key is locked and must be short
+	 * and must not access this dictionary.
+	 * @param key key whose value is to be computed
+	 * @param f function computing the new value
+	 * @return the new value associated with key, or null if there is none.
+	 */
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> f) {
+		int hash = spread(key.hashCode());
+		Node<K, V>[] tab = table;
+		while (true) {
+			int i = (tab.length - 1) & hash;
+			Node<K, V> h = tabAt(tab, i);
+			if (h == null) {
+				// Lock an empty bin through a reservation node
+				Node<K, V> r = new Node<K, V>(RESERVED, null, null, null);
+				synchronized (r) {
+					if (casTabAt(tab, i, null, r)) {
+						V v = null;
+						try {
+							v = f.apply(key, null);
+						} finally {
+							setTabAt(tab, i, (v != null) ? new Node<K, V>(hash, key, v, null) : null);
+						}
+						if (v != null)
+							addCount(1);
+						return v;
+					}
+				}
+			} else if (h.hash == MOVED) {
+				tab = helpTransfer((Forwarding<K, V>) h);
+			} else {
+				V v = null;
+				int delta = 0;
+				boolean done = false;
+				synchronized (h) {
+					if (tabAt(tab, i) == h) {
+						done = true;
+						Node<K, V> p = h;
+						Node<K, V> prev = null;
+						while (p != null && !(p.hash == hash && key.equals(p.key))) {
+							prev = p;
+							p = p.next;
+						}
+						if (p != null) {
+							v = f.apply(key, p.value);
+							if (v != null) {
+								p.value = v;
+							} else {
+								unlink(tab, i, prev, p);
+								delta = -1;
+							}
+						} else {
+							v = f.apply(key, null);
+							if (v != null) {
+								prev.next = new Node<K, V>(hash, key, v, null);
+								delta = 1;
+							}
+						}
+					}
+				}
+				if (done) {
+					if (delta != 0)
+						addCount(delta);
+					return v;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Searches large batches in parallel on the common ForkJoinPool.
+	 */
+	@Override
+	public List<V> searchAll(List<? extends K> keys) {
+		if (keys.size() < ParallelBatch.PARALLEL_THRESHOLD)
+			return Dictionary.super.searchAll(keys);
+		return ParallelBatch.searchAll(this, keys);
+	}
+
+	/**
+	 * Inserts large batches in parallel on the common ForkJoinPool.
+	 */
+	@Override
+	public void insertAll(Map<? extends K, ? extends V> map) {
+		if (map.size() < ParallelBatch.PARALLEL_THRESHOLD)
+			Dictionary.super.insertAll(map);
+		else
+			ParallelBatch.insertAll(this, map);
+	}
+
+	/**
+	 * Removes large batches in parallel on the common ForkJoinPool.
+	 */
+	@Override
+	public int removeAll(Collection<? extends K> keys) {
+		if (keys.size() < ParallelBatch.PARALLEL_THRESHOLD)
+			return Dictionary.super.removeAll(keys);
+		return ParallelBatch.removeAll(this, keys);
+	}
+
+	@Override
+	public int size() {
+		long n = count.sum();
+		return (n < 0) ? 0 : (n > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) n;
+	}
+
+	/**
+	 * The histogram counts the bins by chain length; a bin that is being
+	 * moved is counted with the entries of both its target bins. Under
+	 * concurrent updates the snapshot is weakly consistent.
+	 */
+	@Override
+	public DictionaryStats stats() {
+		Node<K, V>[] tab = table;
+		long[] histogram = new long[1];
+		List<Entry<K, V>> bin = new ArrayList<>();
+		for (int i = 0; i < tab.length; i++) {
+			bin.clear();
+			collectBin(tab, i, bin);
+			if (bin.size() >= histogram.length)
+				histogram = Arrays.copyOf(histogram, bin.size() + 1);
+			histogram[bin.size()]++;
+		}
+		EventCounters ev = events;
+		int n = size();
+		return new DictionaryStats(n, (double) n / tab.length, "chain length", histogram, -1,
+				(ev == null) ? null : ev.toCounters());
+	}
+
+	@Override
+	public void setStatsEnabled(boolean enabled) {
+		events = enabled ? new EventCounters() : null;
+	}
+
+	/**
+	 * size() is only an estimate while writers are active, so the spliterator
+	 * does not report SIZED.
+	 */
+	@Override
+	public Spliterator<Entry<K, V>> spliterator() {
+		return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.CONCURRENT | Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> iterator() {
+		return new Iterator<Dictionary.Entry<K, V>>() {
+			final Node<K, V>[] tab = table;
+			final List<Entry<K, V>> bin = new ArrayList<>();
+			int tabIndex = 0;
+			int binIndex = 0;
+
+			@Override
+			public boolean hasNext() {
+				while (binIndex == bin.size()) {
+					if (tabIndex == tab.length)
+						return false;
+					bin.clear();
+					binIndex = 0;
+					collectBin(tab, tabIndex++, bin);
+				}
+				return true;
+			}
+
+			@Override
+			public Entry<K, V> next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				return bin.get(binIndex++);
+			}
+		};
+	}
+
+	/**
+	 * Adds snapshots of the entries of bin i to out. A bin that has been
+	 * moved is split into bins i and i + n of the next table.
+	 */
+	private void collectBin(Node<K, V>[] tab, int i, List<Entry<K, V>> out) {
+		Node<K, V> e = tabAt(tab, i);
+		if (e != null && e.hash == MOVED) {
+			Node<K, V>[] nt = ((Forwarding<K, V>) e).nextTable;
+			collectBin(nt, i, out);
+			collectBin(nt, i + tab.length, out);
+			return;
+		}
+		for (; e != null; e = e.next) {
+			if (e.hash >= 0)
+				out.add(new Entry<K, V>(e.key, e.value));
+		}
+	}
+
+	private V putVal(K key, V value, boolean onlyIfAbsent) {
+		if (key == null || value == null)
+			throw new NullPointerException();
+		int hash = spread(key.hashCode());
+		Node<K, V>[] tab = table;
+		while (true) {
+			int i = (tab.length - 1) & hash;
+			Node<K, V> f = tabAt(tab, i);
+			if (f == null) {
+				if (casTabAt(tab, i, null, new Node<K, V>(hash, key, value, null)))
+					break;
+			} else if (f.hash == MOVED) {
+				tab = helpTransfer((Forwarding<K, V>) f);
+			} else {
+				V old = null;
+				boolean done = false;
+				synchronized (f) {
+					if (tabAt(tab, i) == f) {
+						done = true;
+						Node<K, V> last = null;
+						for (Node<K, V> p = f; p != null; p = p.next) {
+							if (p.hash == hash && key.equals(p.key)) {
+								old = p.value;
+								if (!onlyIfAbsent)
+									p.value = value;
+								break;
+							}
+							last = p;
+						}
+						if (old == null)
+							last.next = new Node<K, V>(hash, key, value, null);
+					}
+				}
+				if (done) {
+					if (old != null)
+						return old;
+					break;
+				}
+			}
+		}
+		addCount(1);
+		return null;
+	}
+
+	private void unlink(Node<K, V>[] tab, int i, Node<K, V> prev, Node<K, V> p) {
+		if (prev == null)
+			setTabAt(tab, i, p.next);
+		else
+			prev.next = p.next;
+	}
+
+	/**
+	 * Updates the element count and starts or joins a resize if the
+	 * count has reached the threshold.
+	 */
+	private void addCount(int delta) {
+		count.add(delta);
+		if (delta <= 0)
+			return;
+		EventCounters ev = events;
+		if (ev != null)
+			ev.inserts.add(delta);
+		int sc = sizeCtl;
+		if (sc >= 0) {
+			Node<K, V>[] tab = table;
+			if (count.sum() >= sc && tab.length < MAXIMUM_CAPACITY && SIZE_CTL.compareAndSet(this, sc, -2)) {
+				resizeStart = System.nanoTime();
+				nextTable = newTable(tab.length << 1);
+				transferIndex.set(tab.length);
+				transfer();
+			}
+		} else if (sc < -1 && SIZE_CTL.compareAndSet(this, sc, sc - 1)) {
+			transfer();
+		}
+	}
+
+	/**
+	 * Joins the resize that moved a bin if it is still running.
+	 * @return the table to retry the operation on.
+	 */
+	private Node<K, V>[] helpTransfer(Forwarding<K, V> f) {
+		int sc = sizeCtl;
+		if (sc < -1 && nextTable == f.nextTable && transferIndex.get() > 0 && SIZE_CTL.compareAndSet(this, sc, sc - 1))
+			transfer();
+		return f.nextTable;
+	}
+
+	/**
+	 * Claims ranges of bins and moves them to the next table until all
+	 * bins are claimed. The caller must have registered itself in
+	 * sizeCtl; the last thread to leave installs the new table.
+	 */
+	private void transfer() {
+		// Stable while this thread is registered as a resizer
+		Node<K, V>[] tab = table;
+		Node<K, V>[] nt = nextTable;
+		if (nt != null) {
+			int n = tab.length;
+			int stride = Math.max(MIN_TRANSFER_STRIDE, (n >>> 3) / NCPU);
+			Forwarding<K, V> fwd = new Forwarding<K, V>(nt);
+			while (true) {
+				int hi = transferIndex.get();
+				if (hi <= 0)
+					break;
+				int lo = Math.max(hi - stride, 0);
+				if (transferIndex.compareAndSet(hi, lo)) {
+					for (int i = hi - 1; i >= lo; i--)
+						transferBin(tab, nt, i, fwd);
+				}
+			}
+		}
+		while (true) {
+			int sc = sizeCtl;
+			if (SIZE_CTL.compareAndSet(this, sc, sc + 1)) {
+				if (sc + 1 == -1) {
+					table = nextTable;
+					nextTable = null;
+					sizeCtl = threshold(table.length);
+					EventCounters ev = events;
+					if (ev != null) {
+						ev.resizeCount.increment();
+						ev.resizeNanos.add(System.nanoTime() - resizeStart);
+					}
+				}
+				return;
+			}
+		}
+	}
+
+	private void transferBin(Node<K, V>[] tab, Node<K, V>[] nt, int i, Forwarding<K, V> fwd) {
+		int n = tab.length;
+		while (true) {
+			Node<K, V> f = tabAt(tab, i);
+			if (f == null) {
+				if (casTabAt(tab, i, null, fwd))
+					return;
+			} else if (f.hash == MOVED) {
+				return;
+			} else {
+				synchronized (f) {
+					if (tabAt(tab, i) == f) {
+						// Copy the chain so that concurrent readers of the old chain are not disturbed
+						Node<K, V> lo = null;
+						Node<K, V> hi = null;
+						int moved = 0;
+						for (Node<K, V> p = f; p != null; p = p.next) {
+							if ((p.hash & n) == 0)
+								lo = new Node<K, V>(p.hash, p.key, p.value, lo);
+							else
+								hi = new Node<K, V>(p.hash, p.key, p.value, hi);
+							moved++;
+						}
+						EventCounters ev = events;
+						if (ev != null)
+							ev.insertMoves.add(moved);
+						setTabAt(nt, i, lo);
+						setTabAt(nt, i + n, hi);
+						setTabAt(tab, i, fwd);
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> Node<K, V>[] newTable(int n) {
+		return (Node<K, V>[]) new Node[n];
+	}
+
+	private static int threshold(int n) {
+		return n - (n >>> 2);
+	}
+
+	private static int spread(int h) {
+		return (h ^ (h >>> 16)) & HASH_BITS;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> Node<K, V> tabAt(Node<K, V>[] tab, int i) {
+		return (Node<K, V>) TAB.getAcquire(tab, i);
+	}
+
+	private static <K, V> boolean casTabAt(Node<K, V>[] tab, int i, Node<K, V> c, Node<K, V> v) {
+		return TAB.compareAndSet(tab, i, c, v);
+	}
+
+	private static <K, V> void setTabAt(Node<K, V>[] tab, int i, Node<K, V> v) {
+		TAB.setRelease(tab, i, v);
+	}
+
+	private static class Node<K, V> {
+		final int hash;
+		final K key;
+		volatile V value;
+		volatile Node<K, V> next;
+
+		Node(int hash, K key, V value, Node<K, V> next) {
+			this.hash = hash;
+			this.key = key;
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+	/**
+	 * Event counters that many writers may update at once.
+	 */
+	private static class EventCounters {
+		final LongAdder inserts = new LongAdder();
+		final LongAdder insertMoves = new LongAdder();
+		final LongAdder resizeCount = new LongAdder();
+		final LongAdder resizeNanos = new LongAdder();
+
+		DictionaryStats.Counters toCounters() {
+			DictionaryStats.Counters c = new DictionaryStats.Counters();
+			c.inserts = inserts.sum();
+			c.insertMoves = insertMoves.sum();
+			c.resizeCount = resizeCount.sum();
+			c.resizeNanos = resizeNanos.sum();
+			return c;
+		}
+	}
+
+	/**
+	 * Placed in a bin of the old table once the bin has been moved.
+	 */
+	private static class Forwarding<K, V> extends Node<K, V> {
+		final Node<K, V>[] nextTable;
+
+		Forwarding(Node<K, V>[] nextTable) {
+			super(MOVED, null, null, null);
+			this.nextTable = nextTable;
+		}
+	}
+}
@@ -0,0 +1,384 @@
+package dictionary;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Lock-free ordered dictionary based on a skip list
+ * (Herlihy, Shavit: The Art of Multiprocessor Programming, ch. 14).
+ * <ul>
+ * <li>search is wait-free: it never writes and skips deleted nodes.</li>
+ * <li>insert links a new node level by level with CAS; an existing key
+ * gets its value replaced by CAS.</li>
+ * <li>remove first clears the value (the linearization point), then marks
+ * the links of the node; marked nodes are unlinked by later traversals.</li>
+ * </ul>
+ * Values must not be null. Iteration returns snapshot entries in ascending
+ * key order and is weakly consistent.
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public class ConcurrentSkipListDictionary<K extends Comparable<? super K>, V> implements Dictionary<K, V> {
+
+	private static final int MAX_LEVEL = 24;
+
+	private final Node<K, V> head = new Node<K, V>(null, null, MAX_LEVEL);
+	private final LongAdder count = new LongAdder();
+	// Insert counter for stats(), null while counting is disabled
+	private volatile LongAdder inserts;
+
+	@Override
+	public V insert(K key, V value) {
+		return doPut(key, value, false);
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		return doPut(key, value, true);
+	}
+
+	/**
+	 * Replaces the value of key by f(key, oldValue) atomically, where
+	 * oldValue is null if key is not contained. If f returns null, the
+	 * entry is removed. Under contention f may be applied more than once,
+	 * so it should be free of side effects.
+	 * @param key key whose value is to be computed
+	 * @param f function computing the new value
+	 * @return the new value associated with key, or null if there is none.
+	 */
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> f) {
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] preds = new Node[MAX_LEVEL + 1];
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] succs = new Node[MAX_LEVEL + 1];
+		while (true) {
+			if (find(key, preds, succs)) {
+				Node<K, V> node = succs[0];
+				V v = node.value.get();
+				if (v == null) {
+					// Removal in progress: help unlinking instead of waiting for the remover
+					unlink(node, preds, succs);
+					continue;
+				}
+				V nv = f.apply(key, v);
+				if (nv != null) {
+					if (node.value.compareAndSet(v, nv))
+						return nv;
+				} else if (node.value.compareAndSet(v, null)) {
+					count.decrement();
+					unlink(node, preds, succs);
+					return null;
+				}
+			} else {
+				V nv = f.apply(key, null);
+				if (nv == null)
+					return null;
+				if (tryLink(new Node<K, V>(key, nv, randomLevel()), preds, succs))
+					return nv;
+			}
+		}
+	}
+
+	@Override
+	public V search(K key) {
+		boolean[] marked = { false };
+		Node<K, V> pred = head;
+		for (int level = MAX_LEVEL; level >= 0; level--) {
+			Node<K, V> curr = pred.next[level].getReference();
+			while (curr != null) {
+				Node<K, V> succ = curr.next[level].get(marked);
+				if (marked[0]) {
+					curr = succ;
+					continue;
+				}
+				int c = curr.key.compareTo(key);
+				if (c < 0) {
+					pred = curr;
+					curr = succ;
+				} else if (c == 0) {
+					return curr.value.get();
+				} else {
+					break;
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public V remove(K key) {
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] preds = new Node[MAX_LEVEL + 1];
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] succs = new Node[MAX_LEVEL + 1];
+		if (!find(key, preds, succs))
+			return null;
+		Node<K, V> node = succs[0];
+		V v;
+		do {
+			v = node.value.get();
+			if (v == null)
+				return null;
+		} while (!node.value.compareAndSet(v, null));
+		count.decrement();
+		unlink(node, preds, succs);
+		return v;
+	}
+
+	/**
+	 * Searches large batches in parallel on the common ForkJoinPool.
+	 */
+	@Override
+	public List<V> searchAll(List<? extends K> keys) {
+		if (keys.size() < ParallelBatch.PARALLEL_THRESHOLD)
+			return Dictionary.super.searchAll(keys);
+		return ParallelBatch.searchAll(this, keys);
+	}
+
+	/**
+	 * Inserts large batches in parallel on the common ForkJoinPool.
+	 */
+	@Override
+	public void insertAll(Map<? extends K, ? extends V> map) {
+		if (map.size() < ParallelBatch.PARALLEL_THRESHOLD)
+			Dictionary.super.insertAll(map);
+		else
+			ParallelBatch.insertAll(this, map);
+	}
+
+	/**
+	 * Removes large batches in parallel on the common ForkJoinPool.
+	 */
+	@Override
+	public int removeAll(Collection<? extends K> keys) {
+		if (keys.size() < ParallelBatch.PARALLEL_THRESHOLD)
+			return Dictionary.super.removeAll(keys);
+		return ParallelBatch.removeAll(this, keys);
+	}
+
+	@Override
+	public int size() {
+		return count.intValue();
+	}
+
+	/**
+	 * The histogram counts the nodes by their top level. Only inserts are
+	 * counted; a skip list neither moves elements nor resizes. Under
+	 * concurrent updates the snapshot is weakly consistent.
+	 */
+	@Override
+	public DictionaryStats stats() {
+		long[] histogram = new long[1];
+		int n = 0;
+		for (Node<K, V> node = head.next[0].getReference(); node != null; node = node.next[0].getReference()) {
+			if (node.value.get() == null)
+				continue;
+			if (node.topLevel >= histogram.length)
+				histogram = Arrays.copyOf(histogram, node.topLevel + 1);
+			histogram[node.topLevel]++;
+			n++;
+		}
+		DictionaryStats.Counters counters = null;
+		LongAdder ins = inserts;
+		if (ins != null) {
+			counters = new DictionaryStats.Counters();
+			counters.inserts = ins.sum();
+		}
+		return new DictionaryStats(n, Double.NaN, "node level", histogram, -1, counters);
+	}
+
+	@Override
+	public void setStatsEnabled(boolean enabled) {
+		inserts = enabled ? new LongAdder() : null;
+	}
+
+	/**
+	 * Weakly consistent like the iterator; the size is not reported because
+	 * it may change while the stream is running.
+	 */
+	@Override
+	public Spliterator<Entry<K, V>> spliterator() {
+		return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.CONCURRENT | Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> iterator() {
+		return new Iterator<Dictionary.Entry<K, V>>() {
+			Node<K, V> node = head;
+			Entry<K, V> next = advance();
+
+			private Entry<K, V> advance() {
+				while (true) {
+					node = node.next[0].getReference();
+					if (node == null)
+						return null;
+					V v = node.value.get();
+					if (v != null)
+						return new Entry<K, V>(node.key, v);
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public Entry<K, V> next() {
+				if (next == null)
+					throw new NoSuchElementException();
+				Entry<K, V> entry = next;
+				next = advance();
+				return entry;
+			}
+		};
+	}
+
+	private V doPut(K key, V value, boolean onlyIfAbsent) {
+		if (value == null)
+			throw new NullPointerException();
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] preds = new Node[MAX_LEVEL + 1];
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] succs = new Node[MAX_LEVEL + 1];
+		Node<K, V> node = null;
+		while (true) {
+			if (find(key, preds, succs)) {
+				Node<K, V> found = succs[0];
+				V v = found.value.get();
+				if (v != null && (onlyIfAbsent || found.value.compareAndSet(v, value)))
+					return v;
+				// Node is being removed: help unlinking it, then retry
+				unlink(found, preds, succs);
+				continue;
+			}
+			if (node == null)
+				node = new Node<K, V>(key, value, randomLevel());
+			if (tryLink(node, preds, succs))
+				return null;
+		}
+	}
+
+	/**
+	 * Links a new node into the bottom level between preds[0] and succs[0].
+	 * @return false if the bottom level changed concurrently.
+	 */
+	private boolean tryLink(Node<K, V> node, Node<K, V>[] preds, Node<K, V>[] succs) {
+		for (int level = 0; level <= node.topLevel; level++)
+			node.next[level].set(succs[level], false);
+		if (!preds[0].next[0].compareAndSet(succs[0], node, false, false))
+			return false;
+		count.increment();
+		LongAdder ins = inserts;
+		if (ins != null)
+			ins.increment();
+		linkUpperLevels(node, preds, succs);
+		return true;
+	}
+
+	/**
+	 * Marks all links of a logically removed node, top level first,
+	 * and unlinks it. Any thread that finds the value null may call this,
+	 * so that no one depends on the remover making progress.
+	 */
+	private void unlink(Node<K, V> node, Node<K, V>[] preds, Node<K, V>[] succs) {
+		boolean[] marked = { false };
+		for (int level = node.topLevel; level >= 0; level--) {
+			Node<K, V> succ = node.next[level].get(marked);
+			while (!marked[0]) {
+				node.next[level].compareAndSet(succ, succ, false, true);
+				succ = node.next[level].get(marked);
+			}
+		}
+		find(node.key, preds, succs);
+	}
+
+	/**
+	 * Links node into levels 1 to node.topLevel. Gives up if node is
+	 * removed concurrently.
+	 */
+	private void linkUpperLevels(Node<K, V> node, Node<K, V>[] preds, Node<K, V>[] succs) {
+		for (int level = 1; level <= node.topLevel; level++) {
+			while (true) {
+				Node<K, V> succ = succs[level];
+				Node<K, V> cur = node.next[level].getReference();
+				if (node.next[level].isMarked())
+					return;
+				if (cur != succ && !node.next[level].compareAndSet(cur, succ, false, false))
+					return;
+				if (preds[level].next[level].compareAndSet(succ, node, false, false))
+					break;
+				if (!find(node.key, preds, succs) || succs[0] != node)
+					return;
+			}
+		}
+	}
+
+	/**
+	 * Determines the predecessors and successors of key on every level and
+	 * unlinks marked nodes on the way.
+	 * @return true if a node with key is linked on the bottom level.
+	 */
+	private boolean find(K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+		boolean[] marked = { false };
+		retry: while (true) {
+			Node<K, V> pred = head;
+			Node<K, V> curr = null;
+			for (int level = MAX_LEVEL; level >= 0; level--) {
+				curr = pred.next[level].getReference();
+				while (curr != null) {
+					Node<K, V> succ = curr.next[level].get(marked);
+					if (marked[0]) {
+						if (!pred.next[level].compareAndSet(curr, succ, false, false))
+							continue retry;
+						curr = succ;
+					} else if (curr.key.compareTo(key) < 0) {
+						pred = curr;
+						curr = succ;
+					} else {
+						break;
+					}
+				}
+				preds[level] = pred;
+				succs[level] = curr;
+			}
+			return curr != null && curr.key.compareTo(key) == 0;
+		}
+	}
+
+	private static int randomLevel() {
+		// Geometric distribution with p = 1/2
+		int r = ThreadLocalRandom.current().nextInt() | (1 << MAX_LEVEL);
+		return Integer.numberOfTrailingZeros(r);
+	}
+
+	private static class Node<K, V> {
+		final K key;
+		// null once the node is logically removed
+		final AtomicReference<V> value;
+		final AtomicMarkableReference<Node<K, V>>[] next;
+		final int topLevel;
+
+		@SuppressWarnings("unchecked")
+		Node(K key, V value, int topLevel) {
+			this.key = key;
+			this.value = new AtomicReference<V>(value);
+			this.next = new AtomicMarkableReference[topLevel + 1];
+			for (int i = 0; i <= topLevel; i++)
+				this.next[i] = new AtomicMarkableReference<Node<K, V>>(null, false);
+			this.topLevel = topLevel;
+		}
+	}
+}
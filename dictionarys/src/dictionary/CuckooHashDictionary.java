@@ -0,0 +1,367 @@
+package dictionary;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Bucketized cuckoo hashing (Fotakis et al.: Space Efficient Hash Tables
+ * with Worst Case Constant Access Time; Kirsch, Mitzenmacher, Wieder:
+ * More Robust Hashing: Cuckoo Hashing with a Stash).
+ * <p>
+ * Every key may live in one of 4 slots of each of its two buckets, given
+ * by two independent hash functions. search therefore probes at most two
+ * buckets (8 slots) plus a stash of at most STASH_SIZE entries, independent
+ * of the load and of collisions. insert places the key into a free slot of
+ * its buckets, or evicts a random occupant, which moves to its other
+ * bucket, and so on. If this kick chain exceeds MAX_KICKS, the homeless
+ * entry goes to the stash; if the stash is full, the table is doubled.
+ * <p>
+ * Only if more than 8 + STASH_SIZE keys share the same hashCode (so that no
+ * table size separates them) does the stash grow beyond STASH_SIZE.
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public class CuckooHashDictionary<K, V> implements Dictionary<K, V> {
+
+	private static final int SLOTS = 4;
+	private static final int STASH_SIZE = 4;
+	private static final int MAX_KICKS = 500;
+	private static final double MAX_LOAD = 0.9;
+	private static final int DEF_BUCKETS = 16;
+
+	// Bucket b occupies the slots b * SLOTS .. b * SLOTS + SLOTS - 1; null key: free
+	private Object[] keys;
+	private Object[] values;
+	private int[] hashes;
+	private int mask;
+	private Object[] stashKeys = new Object[STASH_SIZE];
+	private Object[] stashValues = new Object[STASH_SIZE];
+	private int[] stashHashes = new int[STASH_SIZE];
+	private int stashCount;
+	private int size;
+	private final Random random = new Random(1);
+	// Event counters for stats(), null while counting is disabled
+	private DictionaryStats.Counters counters;
+
+	public CuckooHashDictionary() {
+		this(DEF_BUCKETS * SLOTS);
+	}
+
+	/**
+	 * @param capacity number of entries the table should hold without growing
+	 */
+	public CuckooHashDictionary(int capacity) {
+		int buckets = Integer.highestOneBit(Math.max(2, (int) (capacity / (SLOTS * MAX_LOAD)) - 1) << 1);
+		allocate(buckets);
+	}
+
+	@Override
+	public V insert(K key, V value) {
+		int hash = key.hashCode();
+		int i = slotOf(key, hash);
+		if (i >= 0) {
+			@SuppressWarnings("unchecked")
+			V r = (V) values[i];
+			values[i] = value;
+			return r;
+		}
+		i = stashIndexOf(key, hash);
+		if (i >= 0) {
+			@SuppressWarnings("unchecked")
+			V r = (V) stashValues[i];
+			stashValues[i] = value;
+			return r;
+		}
+		if (size + 1 > MAX_LOAD * keys.length)
+			rehash(2 * (mask + 1));
+		size++;
+		if (counters != null)
+			counters.inserts++;
+		place(key, value, hash, true);
+		return null;
+	}
+
+	@Override
+	public V search(K key) {
+		int hash = key.hashCode();
+		int i = slotOf(key, hash);
+		if (i >= 0) {
+			@SuppressWarnings("unchecked")
+			V r = (V) values[i];
+			return r;
+		}
+		if (stashCount > 0) {
+			i = stashIndexOf(key, hash);
+			if (i >= 0) {
+				@SuppressWarnings("unchecked")
+				V r = (V) stashValues[i];
+				return r;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public V remove(K key) {
+		int hash = key.hashCode();
+		V r;
+		int i = slotOf(key, hash);
+		if (i >= 0) {
+			@SuppressWarnings("unchecked")
+			V v = (V) values[i];
+			r = v;
+			keys[i] = null;
+			values[i] = null;
+		} else {
+			i = stashIndexOf(key, hash);
+			if (i < 0)
+				return null;
+			@SuppressWarnings("unchecked")
+			V v = (V) stashValues[i];
+			r = v;
+			removeFromStash(i);
+		}
+		size--;
+		drainStash();
+		return r;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * The histogram counts the slots by the bucket their entry is found in:
+	 * 0 free, 1 first bucket, 2 second bucket; index 3 counts the stash.
+	 * Element moves are the evictions of kick chains and the entries
+	 * placed again by a rehash.
+	 */
+	@Override
+	public DictionaryStats stats() {
+		long[] histogram = new long[4];
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] == null)
+				histogram[0]++;
+			else if (firstBucket(spread(hashes[i])) == i / SLOTS)
+				histogram[1]++;
+			else
+				histogram[2]++;
+		}
+		histogram[3] = stashCount;
+		return new DictionaryStats(size, (double) size / keys.length, "bucket", histogram, -1, stashCount, false,
+				counters);
+	}
+
+	@Override
+	public void setStatsEnabled(boolean enabled) {
+		counters = enabled ? new DictionaryStats.Counters() : null;
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> iterator() {
+		return new Iterator<Dictionary.Entry<K, V>>() {
+			// Slots first, then the stash
+			int index = advance(0);
+
+			private int advance(int i) {
+				while (i < keys.length && keys[i] == null)
+					i++;
+				return i;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return index < keys.length + stashCount;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public Entry<K, V> next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				Entry<K, V> entry;
+				if (index < keys.length) {
+					entry = new Entry<K, V>((K) keys[index], (V) values[index]);
+					index = advance(index + 1);
+				} else {
+					int s = index - keys.length;
+					entry = new Entry<K, V>((K) stashKeys[s], (V) stashValues[s]);
+					index++;
+				}
+				return entry;
+			}
+		};
+	}
+
+	/**
+	 * Returns the slot of key in one of its two buckets, or -1.
+	 */
+	private int slotOf(K key, int hash) {
+		long h = spread(hash);
+		int b = firstBucket(h) * SLOTS;
+		for (int i = b; i < b + SLOTS; i++)
+			if (hashes[i] == hash && keys[i] != null && key.equals(keys[i]))
+				return i;
+		b = secondBucket(h) * SLOTS;
+		for (int i = b; i < b + SLOTS; i++)
+			if (hashes[i] == hash && keys[i] != null && key.equals(keys[i]))
+				return i;
+		return -1;
+	}
+
+	private int stashIndexOf(K key, int hash) {
+		for (int i = 0; i < stashCount; i++)
+			if (stashHashes[i] == hash && key.equals(stashKeys[i]))
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Places a new entry by a random-walk kick chain. A homeless entry at the
+	 * end of the chain goes to the stash; if the stash is full and the table
+	 * reasonably loaded (mayGrow), the table is doubled instead.
+	 */
+	private void place(Object key, Object value, int hash, boolean mayGrow) {
+		int bucket = firstBucket(spread(hash));
+		for (int kick = 0; kick < MAX_KICKS; kick++) {
+			long h = spread(hash);
+			if (putIntoFreeSlot(firstBucket(h), key, value, hash) || putIntoFreeSlot(secondBucket(h), key, value, hash))
+				return;
+			// Evict a random occupant of the current bucket; it moves to its other bucket
+			int i = bucket * SLOTS + random.nextInt(SLOTS);
+			if (counters != null)
+				counters.insertMoves++;
+			Object k = keys[i];
+			Object v = values[i];
+			int kh = hashes[i];
+			keys[i] = key;
+			values[i] = value;
+			hashes[i] = hash;
+			key = k;
+			value = v;
+			hash = kh;
+			long kickedHash = spread(hash);
+			bucket = (firstBucket(kickedHash) == bucket) ? secondBucket(kickedHash) : firstBucket(kickedHash);
+		}
+		if (stashCount >= STASH_SIZE && mayGrow && size >= keys.length / 4) {
+			rehash(2 * (mask + 1));
+			place(key, value, hash, true);
+		} else {
+			addToStash(key, value, hash);
+		}
+	}
+
+	private boolean putIntoFreeSlot(int bucket, Object key, Object value, int hash) {
+		int b = bucket * SLOTS;
+		for (int i = b; i < b + SLOTS; i++) {
+			if (keys[i] == null) {
+				keys[i] = key;
+				values[i] = value;
+				hashes[i] = hash;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void addToStash(Object key, Object value, int hash) {
+		if (stashCount == stashKeys.length) {
+			stashKeys = Arrays.copyOf(stashKeys, 2 * stashCount);
+			stashValues = Arrays.copyOf(stashValues, 2 * stashCount);
+			stashHashes = Arrays.copyOf(stashHashes, 2 * stashCount);
+		}
+		stashKeys[stashCount] = key;
+		stashValues[stashCount] = value;
+		stashHashes[stashCount] = hash;
+		stashCount++;
+	}
+
+	private void removeFromStash(int i) {
+		stashCount--;
+		stashKeys[i] = stashKeys[stashCount];
+		stashValues[i] = stashValues[stashCount];
+		stashHashes[i] = stashHashes[stashCount];
+		stashKeys[stashCount] = null;
+		stashValues[stashCount] = null;
+	}
+
+	/**
+	 * Moves stashed entries back into their buckets where a slot has become free.
+	 */
+	private void drainStash() {
+		for (int i = stashCount - 1; i >= 0; i--) {
+			long h = spread(stashHashes[i]);
+			if (putIntoFreeSlot(firstBucket(h), stashKeys[i], stashValues[i], stashHashes[i])
+					|| putIntoFreeSlot(secondBucket(h), stashKeys[i], stashValues[i], stashHashes[i]))
+				removeFromStash(i);
+		}
+	}
+
+	/**
+	 * Reinserts all entries into a table with the given number of buckets.
+	 */
+	private void rehash(int buckets) {
+		long start = (counters != null) ? System.nanoTime() : 0;
+		Object[] oldKeys = keys;
+		Object[] oldValues = values;
+		int[] oldHashes = hashes;
+		Object[] oldStashKeys = stashKeys;
+		Object[] oldStashValues = stashValues;
+		int[] oldStashHashes = stashHashes;
+		int oldStashCount = stashCount;
+		allocate(buckets);
+		stashKeys = new Object[Math.max(STASH_SIZE, oldStashCount)];
+		stashValues = new Object[stashKeys.length];
+		stashHashes = new int[stashKeys.length];
+		stashCount = 0;
+		int moved = oldStashCount;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				place(oldKeys[i], oldValues[i], oldHashes[i], false);
+				moved++;
+			}
+		}
+		for (int i = 0; i < oldStashCount; i++)
+			place(oldStashKeys[i], oldStashValues[i], oldStashHashes[i], false);
+		if (counters != null) {
+			counters.insertMoves += moved;
+			counters.resized(start);
+		}
+	}
+
+	private void allocate(int buckets) {
+		this.keys = new Object[buckets * SLOTS];
+		this.values = new Object[buckets * SLOTS];
+		this.hashes = new int[buckets * SLOTS];
+		this.mask = buckets - 1;
+	}
+
+	private int firstBucket(long h) {
+		return (int) h & mask;
+	}
+
+	/**
+	 * Second hash function: the upper half of the spread hash, never equal
+	 * to the first bucket.
+	 */
+	private int secondBucket(long h) {
+		int b = (int) (h >>> 32) & mask;
+		return (b == ((int) h & mask)) ? b ^ 1 : b;
+	}
+
+	/**
+	 * 64-bit finalizer of MurmurHash3: both halves depend on all bits of hash.
+	 */
+	private static long spread(int hash) {
+		long h = hash + 0x9e3779b97f4a7c15L;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
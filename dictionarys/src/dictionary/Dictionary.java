@@ -3,7 +3,16 @@
 
 package dictionary;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Collection of entries.
@@ -47,7 +56,114 @@ public interface Dictionary<K,V> extends Iterable<Dictionary.Entry<K,V>> {
 	 * @return the number of elements in this dictionary.
 	 */
 	int size();
-	
+
+	/**
+	 * Inserts all specified entries.
+	 * If a key occurs more than once, the last entry wins.
+	 * The default implementation calls insert for every entry;
+	 * implementations may load the entries in bulk.
+	 * @param entries entries to be inserted
+	 */
+	default void insertAll(Iterable<? extends Entry<K, V>> entries) {
+		for (Entry<K, V> e : entries)
+			insert(e.getKey(), e.getValue());
+	}
+
+	/**
+	 * Inserts all mappings of the specified map.
+	 * The default implementation passes the mappings to insertAll(Iterable),
+	 * so implementations with a bulk load use it.
+	 * @param map mappings to be inserted
+	 */
+	default void insertAll(Map<? extends K, ? extends V> map) {
+		List<Entry<K, V>> entries = new ArrayList<>(map.size());
+		for (Map.Entry<? extends K, ? extends V> e : map.entrySet())
+			entries.add(new Entry<K, V>(e.getKey(), e.getValue()));
+		insertAll(entries);
+	}
+
+	/**
+	 * Searches all specified keys.
+	 * The default implementation calls search for every key; implementations
+	 * may sort the keys for locality or search in parallel.
+	 * @param keys keys to be searched
+	 * @return the values of the keys in the same order, null for absent keys.
+	 */
+	default List<V> searchAll(List<? extends K> keys) {
+		List<V> values = new ArrayList<>(keys.size());
+		for (K key : keys)
+			values.add(search(key));
+		return values;
+	}
+
+	/**
+	 * Removes all specified keys.
+	 * The default implementation calls remove for every key.
+	 * @param keys keys to be removed
+	 * @return the number of removed entries.
+	 */
+	default int removeAll(Collection<? extends K> keys) {
+		int removed = 0;
+		for (K key : keys)
+			if (remove(key) != null)
+				removed++;
+		return removed;
+	}
+
+	/**
+	 * Associates the specified value with the specified key
+	 * only if the key is not yet contained in this dictionary.
+	 * The default implementation searches and then inserts;
+	 * implementations may do both in a single probe.
+	 * @param key key with which the specified value is to be associated
+	 * @param value value to be associated with the specified key
+	 * @return the value already associated with key, or null if value was inserted.
+	 */
+	default V putIfAbsent(K key, V value) {
+		V v = search(key);
+		if (v == null)
+			insert(key, value);
+		return v;
+	}
+
+	/**
+	 * Replaces the value associated with key by f(key, oldValue),
+	 * where oldValue is null if the key is not contained.
+	 * If f returns null, the entry is removed.
+	 * The default implementation searches and then inserts or removes;
+	 * implementations may do both in a single probe.
+	 * @param key key whose value is to be computed
+	 * @param f function computing the new value
+	 * @return the new value associated with key, or null if there is none.
+	 */
+	default V compute(K key, BiFunction<? super K, ? super V, ? extends V> f) {
+		V v = f.apply(key, search(key));
+		if (v == null)
+			remove(key);
+		else
+			insert(key, v);
+		return v;
+	}
+
+	/**
+	 * Returns a snapshot of the internal state of this dictionary
+	 * (histogram, load factor, tree height, event counters).
+	 * The default implementation reports the size only.
+	 * @return statistics of this dictionary
+	 */
+	default DictionaryStats stats() {
+		return new DictionaryStats(size());
+	}
+
+	/**
+	 * Starts (and resets) or stops counting inserts, element moves,
+	 * resizes and rotations for stats().
+	 * The default implementation counts nothing.
+	 * @param enabled true to start counting, false to stop
+	 */
+	default void setStatsEnabled(boolean enabled) {
+	}
+
 	/**
 	 * Returns an iterator over the entries in this dictionary. 
 	 * There are no guarantees concerning the order in which the elements are returned 
@@ -56,6 +172,35 @@ public interface Dictionary<K,V> extends Iterable<Dictionary.Entry<K,V>> {
 	 */
 	@Override
 	public Iterator<Entry<K, V>> iterator();
+
+	/**
+	 * Returns a spliterator over the entries in this dictionary.
+	 * The default implementation wraps iterator() and reports the size,
+	 * so parallel streams can at least split it into batches;
+	 * implementations may split their own structure instead.
+	 * @return a Spliterator over the entries in this dictionary
+	 */
+	@Override
+	default Spliterator<Entry<K, V>> spliterator() {
+		return Spliterators.spliterator(iterator(), size(), Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	/**
+	 * Returns a sequential stream over the entries in this dictionary.
+	 * @return a sequential Stream over the entries in this dictionary
+	 */
+	default Stream<Entry<K, V>> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Returns a parallel stream over the entries in this dictionary.
+	 * The dictionary must not be changed while the stream is running.
+	 * @return a possibly parallel Stream over the entries in this dictionary
+	 */
+	default Stream<Entry<K, V>> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
 	
 	/**
 	 * A dictionary entry (key-value pair).
@@ -0,0 +1,230 @@
+package dictionary;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of the internal state of a dictionary, returned by
+ * Dictionary.stats().
+ * <p>
+ * Structural figures (load factor, histogram, height) are computed when the
+ * snapshot is taken. Event counters (inserts, element moves, resizes,
+ * rotations) are only maintained after setStatsEnabled(true); counting costs
+ * a field increment per event, resizes additionally two System.nanoTime
+ * calls. Figures that do not apply to an implementation are NaN, -1 or 0.
+ */
+public final class DictionaryStats {
+
+	private final int size;
+	private final double loadFactor;
+	private final String histogramName;
+	private final long[] histogram;
+	private final int height;
+	private final int stashSize;
+	private final boolean rotating;
+	private final boolean counting;
+	private final Counters counters;
+
+	DictionaryStats(int size) {
+		this(size, Double.NaN, null, new long[0], -1, null);
+	}
+
+	DictionaryStats(int size, double loadFactor, String histogramName, long[] histogram, int height,
+			Counters counters) {
+		this(size, loadFactor, histogramName, histogram, height, -1, false, counters);
+	}
+
+	/**
+	 * @param stashSize number of entries kept outside the table, -1 if there is no stash
+	 * @param rotating true if the dictionary rebalances by rotations
+	 * @param counters event counters of the dictionary, null if counting is disabled
+	 */
+	DictionaryStats(int size, double loadFactor, String histogramName, long[] histogram, int height,
+			int stashSize, boolean rotating, Counters counters) {
+		this.size = size;
+		this.loadFactor = loadFactor;
+		this.histogramName = histogramName;
+		this.histogram = histogram;
+		this.height = height;
+		this.stashSize = stashSize;
+		this.rotating = rotating;
+		this.counting = (counters != null);
+		this.counters = counting ? counters.copy() : new Counters();
+	}
+
+	/**
+	 * @return number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return entries per bucket or slot of the table (NaN if there is none)
+	 */
+	public double loadFactor() {
+		return loadFactor;
+	}
+
+	/**
+	 * @return what histogram counts, e.g. "chain length", or null if there is no histogram
+	 */
+	public String histogramName() {
+		return histogramName;
+	}
+
+	/**
+	 * Returns the histogram of the structure: for chained hashing the number
+	 * of buckets with i entries, for open addressing the number of slots whose
+	 * entry is found after i probes (0: empty slot), for cuckoo hashing the
+	 * number of slots that are free (0), hold an entry of its first (1) or
+	 * second (2) bucket, and the stash occupancy (3), for skip lists the
+	 * number of nodes with top level i, for trees the number of nodes at
+	 * depth i.
+	 * @return a copy of the histogram (empty if there is none)
+	 */
+	public long[] histogram() {
+		return histogram.clone();
+	}
+
+	/**
+	 * @return number of nodes on the longest path from the root to a leaf
+	 * (0 for an empty tree), -1 if the dictionary is no tree
+	 */
+	public int height() {
+		return height;
+	}
+
+	/**
+	 * @return number of entries kept outside the table, e.g. in the stash
+	 * of cuckoo hashing; -1 if the dictionary has no stash
+	 */
+	public int stashSize() {
+		return stashSize;
+	}
+
+	/**
+	 * @return true if the dictionary rebalances by rotations, so that the
+	 * rotation counters apply
+	 */
+	public boolean isRotating() {
+		return rotating;
+	}
+
+	/**
+	 * @return true if the event counters were enabled
+	 */
+	public boolean isCounting() {
+		return counting;
+	}
+
+	/**
+	 * @return number of inserts of new keys since counting was enabled
+	 */
+	public long inserts() {
+		return counters.inserts;
+	}
+
+	/**
+	 * @return number of entries moved by these inserts: shifted array
+	 * elements, displaced slots and entries moved by resizes
+	 */
+	public long insertMoves() {
+		return counters.insertMoves;
+	}
+
+	/**
+	 * @return insertMoves / inserts (NaN if there were no inserts)
+	 */
+	public double movesPerInsert() {
+		return (counters.inserts == 0) ? Double.NaN : (double) counters.insertMoves / counters.inserts;
+	}
+
+	/**
+	 * @return number of times the table or array was enlarged
+	 */
+	public long resizeCount() {
+		return counters.resizeCount;
+	}
+
+	/**
+	 * @return total time spent in these resizes in nanoseconds
+	 */
+	public long resizeNanos() {
+		return counters.resizeNanos;
+	}
+
+	public long leftRotations() {
+		return counters.leftRotations;
+	}
+
+	public long rightRotations() {
+		return counters.rightRotations;
+	}
+
+	public long leftRightRotations() {
+		return counters.leftRightRotations;
+	}
+
+	public long rightLeftRotations() {
+		return counters.rightLeftRotations;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("size: ").append(size);
+		if (!Double.isNaN(loadFactor))
+			sb.append(String.format("%nload factor: %.3f", loadFactor));
+		if (height >= 0)
+			sb.append(String.format("%nheight: %d", height));
+		if (stashSize >= 0)
+			sb.append(String.format("%nstash: %d", stashSize));
+		if (histogramName != null)
+			sb.append(String.format("%n%s histogram: %s", histogramName, Arrays.toString(histogram)));
+		if (counting) {
+			sb.append(String.format("%ninserts: %d, moves per insert: %.2f", inserts(), movesPerInsert()));
+			sb.append(String.format("%nresizes: %d (%.3f ms)", resizeCount(), resizeNanos() / 1e6));
+			if (rotating)
+				sb.append(String.format("%nrotations: left %d, right %d, left-right %d, right-left %d",
+						leftRotations(), rightRotations(), leftRightRotations(), rightLeftRotations()));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Event counters kept by a dictionary while counting is enabled.
+	 * Not thread-safe; they are updated under the same conditions as the
+	 * dictionary itself.
+	 */
+	static final class Counters {
+		long inserts;
+		long insertMoves;
+		long resizeCount;
+		long resizeNanos;
+		long leftRotations;
+		long rightRotations;
+		long leftRightRotations;
+		long rightLeftRotations;
+
+		/**
+		 * Records a resize that started at System.nanoTime() == start.
+		 */
+		void resized(long start) {
+			resizeCount++;
+			resizeNanos += System.nanoTime() - start;
+		}
+
+		Counters copy() {
+			Counters c = new Counters();
+			c.inserts = inserts;
+			c.insertMoves = insertMoves;
+			c.resizeCount = resizeCount;
+			c.resizeNanos = resizeNanos;
+			c.leftRotations = leftRotations;
+			c.rightRotations = rightRotations;
+			c.leftRightRotations = leftRightRotations;
+			c.rightLeftRotations = rightLeftRotations;
+			return c;
+		}
+	}
+}
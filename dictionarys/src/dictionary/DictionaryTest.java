@@ -6,6 +6,18 @@
  */
 package dictionary;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
 /**
  * Static test methods for different Dictionary implementations.
  * 
@@ -20,22 +32,161 @@ public class DictionaryTest {
 
 		testSortedArrayDictionary();
 		testHashDictionary();
+		testBloomFilterDictionary();
+		testCachingDictionary();
+		testPersistentHashDictionary();
+		testRobinHoodHashDictionary();
+		testCuckooHashDictionary();
+		testConcurrentHashDictionary();
+		testConcurrentSkipListDictionary();
 		testBinaryTreeDictionary();
+		testBTreeDictionary();
+		testAtomicTreeDictionary();
+		testRadixTreeDictionary();
+		testPrimitiveDictionaries();
+		testMappedDictionary();
+		testDurableDictionary();
+		testDictionaryStats();
+		testStreams();
 	}
 
 	private static void testSortedArrayDictionary() {
-		Dictionary<String, String> dict = new SortedArrayDictionary<>();
+		OrderedDictionary<String, String> dict = new SortedArrayDictionary<>();
 		testDict(dict);
+		testOrderedDict(dict);
+
+		Dictionary<String, String> frozen = ((SortedArrayDictionary<String, String>) dict).freeze();
+		System.out.println(frozen.size() == dict.size()); // true
+		boolean allFound = true;
+		for (Dictionary.Entry<String, String> e : dict)
+			allFound &= e.getValue().equals(frozen.search(e.getKey()));
+		System.out.println(allFound); // true
+		System.out.println(frozen.search("aaa") == null && frozen.search("zzz") == null); // true
+		Iterator<Dictionary.Entry<String, String>> it = dict.iterator();
+		boolean sameOrder = true;
+		for (Dictionary.Entry<String, String> e : frozen)
+			sameOrder &= e.getKey().equals(it.next().getKey());
+		System.out.println(sameOrder); // true
 	}
 
 	private static void testHashDictionary() {
 		Dictionary<String, String> dict = new HashDictionary<>(3);
 		testDict(dict);
+		testDict(new HashDictionary<>(3, true));
+
+	}
+
+	private static void testBloomFilterDictionary() {
+		BloomFilterDictionary<String, String> dict = new BloomFilterDictionary<>(new HashDictionary<>(3));
+		testDict(dict);
+		System.out.println(dict.mightContain("gehen")); // true
+		int misses = 0;
+		for (int i = 0; i < 1000; i++)
+			if (dict.mightContain("fehlt" + i))
+				misses++;
+		System.out.println(misses < 50); // true
+
+		// Iterable, das seine Eintrge nur einmal liefert
+		BloomFilterDictionary<String, String> bulk = new BloomFilterDictionary<>(new HashDictionary<>(3));
+		Iterator<Dictionary.Entry<String, String>> once = List.of(new Dictionary.Entry<>("Haus", "house"),
+				new Dictionary.Entry<>("Baum", "tree")).iterator();
+		bulk.insertAll(() -> once);
+		System.out.println("house".equals(bulk.search("Haus")) && "tree".equals(bulk.search("Baum"))); // true
+	}
+
+	private static void testCachingDictionary() {
+		// Kleiner Cache, damit verdrngt wird
+		CachingDictionary<String, String> dict = new CachingDictionary<>(new HashDictionary<>(3), 4);
+		testDict(dict);
+		System.out.println(dict.cachedSize() <= 4); // true
+		System.out.println(dict.evictionCount() > 0); // true
+		long hits = dict.hitCount();
+		dict.search("gehen");
+		dict.search("gehen");
+		System.out.println(dict.hitCount() > hits); // true
+	}
+
+	private static void testPersistentHashDictionary() {
+		PersistentHashDictionary.Transient<String, String> dict = new PersistentHashDictionary.Transient<>();
+		testDict(dict);
+
+		PersistentHashDictionary<String, String> snapshot = dict.snapshot();
+		int size = snapshot.size();
+		dict.insert("zzz", "last");
+		System.out.println(snapshot.size() == size && snapshot.search("zzz") == null); // true
+		System.out.println(dict.search("zzz").equals("last") && dict.size() == size + 1); // true
+		// "Aa" und "BB" haben denselben hashCode
+		PersistentHashDictionary<String, String> p = PersistentHashDictionary.<String, String>empty()
+				.with("Aa", "1").with("BB", "2");
+		System.out.println(p.size() == 2 && p.search("Aa").equals("1") && p.search("BB").equals("2")); // true
+		System.out.println(p.without("Aa").search("BB").equals("2") && p.search("Aa").equals("1")); // true
+	}
+
+	private static void testRobinHoodHashDictionary() {
+		Dictionary<String, String> dict = new RobinHoodHashDictionary<>(3);
+		testDict(dict);
+	}
+
+	private static void testCuckooHashDictionary() {
+		Dictionary<String, String> dict = new CuckooHashDictionary<>(4);
+		testDict(dict);
+	}
+
+	private static void testConcurrentHashDictionary() {
+		Dictionary<String, String> dict = new ConcurrentHashDictionary<>(3);
+		testDict(dict);
+
+		// Parallel inserts of disjoint key ranges
+		Dictionary<Integer, Integer> cd = new ConcurrentHashDictionary<>();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final int offset = t * 10000;
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 10000; i++)
+					cd.insert(offset + i, i);
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		System.out.println(cd.size() == 40000); // true
+		System.out.println(cd.search(39999) == 9999); // true
+	}
+
+	private static void testConcurrentSkipListDictionary() {
+		Dictionary<String, String> dict = new ConcurrentSkipListDictionary<>();
+		testDict(dict);
+		testDict(new SynchronizedDictionary<>(new BinaryTreeDictionary<String, String>()));
+
+		// compute als Zhler: kein Inkrement darf verloren gehen
+		Dictionary<Integer, Integer> counter = new SynchronizedDictionary<>(new HashDictionary<Integer, Integer>(3));
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 10000; i++)
+					counter.compute(i % 10, (k, v) -> (v == null) ? 1 : v + 1);
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		System.out.println(counter.size() == 10 && counter.search(0) == 4000); // true
 	}
 
 	private static void testBinaryTreeDictionary() {
-		Dictionary<String, String> dict = new BinaryTreeDictionary<>();
+		OrderedDictionary<String, String> dict = new BinaryTreeDictionary<>();
 		testDict(dict);
+		testOrderedDict(dict);
 
 		// Test fr BinaryTreeDictionary mit prettyPrint
 		// (siehe Aufgabe 10; Programmiertechnik 2).
@@ -79,6 +230,306 @@ public class DictionaryTest {
 		btd.remove(50);
 		System.out.println("remove:");
 		btd.prettyPrint();
+
+		List<Dictionary.Entry<Integer, Integer>> sorted = new ArrayList<>();
+		for (int i = 1; i <= 7; i++)
+			sorted.add(new Dictionary.Entry<>(i * 5, 1));
+		BinaryTreeDictionary<Integer, Integer> balanced = BinaryTreeDictionary.fromSorted(sorted.iterator(), 7);
+		System.out.println("fromSorted:");
+		balanced.prettyPrint();
+
+		System.out.println("merge:");
+		BinaryTreeDictionary.merge(balanced, btd).prettyPrint();
+	}
+
+	private static void testBTreeDictionary() {
+		// Kleiner Verzweigungsgrad, damit Knoten geteilt und verschmolzen werden
+		OrderedDictionary<String, String> dict = new BTreeDictionary<>(3);
+		testDict(dict);
+		testOrderedDict(dict);
+		testDict(new BTreeDictionary<>());
+	}
+
+	private static void testAtomicTreeDictionary() {
+		AtomicTreeDictionary<String, String> dict = new AtomicTreeDictionary<>();
+		testDict(dict);
+		testOrderedDict(dict);
+
+		// Snapshots ndern sich nicht mehr
+		PersistentTreeDictionary<String, String> before = dict.snapshot();
+		int size = before.size();
+		dict.insert("zzz", "last");
+		dict.remove(before.first().getKey());
+		System.out.println(before.size() == size && before.search("zzz") == null); // true
+		System.out.println(dict.search("zzz").equals("last") && dict.size() == size); // true
+		PersistentTreeDictionary<String, String> p = PersistentTreeDictionary.<String, String>empty().with("a", "1");
+		System.out.println(p.with("b", "2").size() == 2 && p.size() == 1); // true
+		System.out.println(p.without("a").size() == 0 && p.without("x") == p); // true
+	}
+
+	private static void testRadixTreeDictionary() {
+		RadixTreeDictionary<String> dict = new RadixTreeDictionary<>();
+		testDict(dict);
+		System.out.println("prefix sch:");
+		for (var it = dict.prefixIterator("sch"); it.hasNext();) {
+			Dictionary.Entry<String, String> e = it.next();
+			System.out.println(e.getKey() + ": " + e.getValue()); // schreiben, schreien, schwimmen
+		}
+		System.out.println(dict.prefixIterator("schx").hasNext() == false); // true
+	}
+
+	private static void testMappedDictionary() {
+		System.out.println("===== New Test Case ========================");
+		System.out.println("test " + MappedDictionary.class);
+		Dictionary<String, String> source = new HashDictionary<>(3);
+		source.insert("gehen", "go");
+		source.insert("lesen", "read");
+		source.insert("\u00fcber", "over");
+		try {
+			Path file = Files.createTempFile("dictionary", ".snapshot");
+			MappedDictionary.writeSnapshot(source, file);
+			Dictionary<String, String> dict = MappedDictionary.open(file);
+			System.out.println(dict.size() == 3); // true
+			System.out.println(dict.search("gehen").equals("go")); // true
+			System.out.println(dict.search("\u00fcber").equals("over")); // true
+			System.out.println(dict.search("laufen") == null); // true
+			for (Dictionary.Entry<String, String> e : dict)
+				System.out.println(e.getKey() + ": " + e.getValue());
+			Files.delete(file);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void testDurableDictionary() {
+		System.out.println("===== New Test Case ========================");
+		System.out.println("test " + DurableDictionary.class);
+		try {
+			Path dir = Files.createTempDirectory("dictionary");
+			var dict = new DurableDictionary<String, String>(new HashDictionary<>(3), dir,
+					DurableDictionary.Codec.STRING, DurableDictionary.Codec.STRING, 2, 4);
+			dict.insert("gehen", "go");
+			dict.insert("lesen", "read");
+			dict.insert("schreiben", "write");
+			dict.remove("lesen");
+			dict.insert("lesen", "read"); // Checkpoint nach 4 nderungen
+			dict.insert("gehen", "walk");
+			dict.close();
+			dict = new DurableDictionary<String, String>(new SortedArrayDictionary<>(), dir,
+					DurableDictionary.Codec.STRING, DurableDictionary.Codec.STRING, 2, 4);
+			System.out.println(dict.size() == 3); // true
+			System.out.println(dict.search("gehen").equals("walk")); // true
+			System.out.println(dict.search("lesen").equals("read")); // true
+			dict.close();
+
+			// Absturz: mit Nullen aufgeflltes Ende, danach ein halb geschriebener Datensatz
+			Path log = dir.resolve("wal.log");
+			Files.write(log, new byte[4096], StandardOpenOption.APPEND);
+			dict = new DurableDictionary<String, String>(new HashDictionary<>(3), dir,
+					DurableDictionary.Codec.STRING, DurableDictionary.Codec.STRING, 1, 100);
+			dict.insert("laufen", "run");
+			dict.close();
+			Files.write(log, new byte[] { 0, 0, 0, 20, 1, 2, 3, 4, 1, 0 }, StandardOpenOption.APPEND);
+			dict = new DurableDictionary<String, String>(new HashDictionary<>(3), dir,
+					DurableDictionary.Codec.STRING, DurableDictionary.Codec.STRING, 1, 100);
+			System.out.println(dict.size() == 4 && dict.search("laufen").equals("run")); // true
+			dict.insert("rennen", "race");
+			dict.close();
+			dict = new DurableDictionary<String, String>(new HashDictionary<>(3), dir,
+					DurableDictionary.Codec.STRING, DurableDictionary.Codec.STRING, 1, 100);
+			System.out.println(dict.size() == 5 && dict.search("rennen").equals("race")); // true
+			dict.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void testDictionaryStats() {
+		System.out.println("===== New Test Case ========================");
+		System.out.println("test " + DictionaryStats.class);
+		HashDictionary<Integer, Integer> hash = new HashDictionary<>(3);
+		hash.setStatsEnabled(true);
+		for (int i = 0; i < 100; i++)
+			hash.insert(i, i);
+		DictionaryStats s = hash.stats();
+		long buckets = 0;
+		long entries = 0;
+		long[] chains = s.histogram();
+		for (int i = 0; i < chains.length; i++) {
+			buckets += chains[i];
+			entries += i * chains[i];
+		}
+		System.out.println(entries == 100 && s.size() == 100); // true
+		System.out.println(s.inserts() == 100 && s.resizeCount() > 0); // true
+		System.out.println(Math.abs(s.loadFactor() - 100.0 / buckets) < 1e-9); // true
+
+		BinaryTreeDictionary<Integer, Integer> tree = new BinaryTreeDictionary<>();
+		tree.setStatsEnabled(true);
+		for (int i = 0; i < 127; i++)
+			tree.insert(i, i);
+		s = tree.stats();
+		// Aufsteigend eingefgt: nur Linksrotationen, vollstndiger Baum
+		System.out.println(s.height() == 7 && s.histogram()[6] == 64); // true
+		System.out.println(s.leftRotations() == 120 && s.rightRotations() == 0); // true
+		System.out.println(s.isRotating() && s.toString().contains("rotations")); // true
+
+		SortedArrayDictionary<Integer, Integer> sorted = new SortedArrayDictionary<>();
+		sorted.setStatsEnabled(true);
+		for (int i = 9; i >= 0; i--)
+			sorted.insert(i, i);
+		System.out.println(sorted.stats().insertMoves() == 45); // true
+		sorted.setStatsEnabled(false);
+		System.out.println(!sorted.stats().isCounting() && sorted.stats().inserts() == 0); // true
+
+		RobinHoodHashDictionary<Integer, Integer> robinHood = new RobinHoodHashDictionary<>();
+		BTreeDictionary<Integer, Integer> bTree = new BTreeDictionary<>(4);
+		for (int i = 0; i < 100; i++) {
+			robinHood.insert(i, i);
+			bTree.insert(i, i);
+		}
+		System.out.println(robinHood.stats().size() == 100 && bTree.stats().height() >= 4); // true
+		bTree.setStatsEnabled(true);
+		System.out.println(!bTree.stats().isRotating() && !bTree.stats().toString().contains("rotations")); // true
+		// 12 von 16 Pltzen belegt: ndern eines Werts darf die Tabelle nicht vergrern
+		robinHood = new RobinHoodHashDictionary<>(16);
+		robinHood.setStatsEnabled(true);
+		for (int i = 0; i < 12; i++)
+			robinHood.insert(i, i);
+		robinHood.insert(5, 50);
+		System.out.println(robinHood.stats().resizeCount() == 0 && robinHood.search(5) == 50); // true
+		robinHood.insert(12, 12);
+		System.out.println(robinHood.stats().resizeCount() == 1 && robinHood.size() == 13); // true
+		System.out.println(new SynchronizedDictionary<>(tree).stats().height() == 7); // true
+
+		IntIntHashDictionary intInt = new IntIntHashDictionary(12, -1);
+		intInt.setStatsEnabled(true);
+		for (int i = 0; i < 12; i++)
+			intInt.put(i, i);
+		intInt.put(5, 50);
+		s = intInt.stats();
+		System.out.println(s.resizeCount() == 0 && s.inserts() == 12 && s.loadFactor() == 0.75); // true
+
+		// 16 Schlssel aus "Aa" und "BB" mit demselben hashCode: 8 in den Buckets, der Rest im Stash
+		CuckooHashDictionary<String, Integer> cuckoo = new CuckooHashDictionary<>();
+		cuckoo.setStatsEnabled(true);
+		String[] parts = { "Aa", "BB" };
+		for (int i = 0; i < 16; i++)
+			cuckoo.insert(parts[i & 1] + parts[i >> 1 & 1] + parts[i >> 2 & 1] + parts[i >> 3 & 1], i);
+		for (int i = 0; i < 200; i++)
+			cuckoo.insert("k" + i, i);
+		s = cuckoo.stats();
+		long[] slots = s.histogram();
+		System.out.println(s.stashSize() == 8 && slots[3] == 8 && slots[1] + slots[2] + slots[3] == 216); // true
+		System.out.println(s.resizeCount() > 0 && s.loadFactor() > 0 && s.toString().contains("stash")); // true
+
+		ConcurrentHashDictionary<Integer, Integer> concurrent = new ConcurrentHashDictionary<>();
+		concurrent.setStatsEnabled(true);
+		for (int i = 0; i < 100; i++)
+			concurrent.insert(i, i);
+		s = concurrent.stats();
+		entries = 0;
+		chains = s.histogram();
+		for (int i = 0; i < chains.length; i++)
+			entries += i * chains[i];
+		System.out.println(entries == 100 && s.inserts() == 100 && s.resizeCount() > 0); // true
+
+		ConcurrentSkipListDictionary<Integer, Integer> skipList = new ConcurrentSkipListDictionary<>();
+		RadixTreeDictionary<Integer> radix = new RadixTreeDictionary<>();
+		skipList.setStatsEnabled(true);
+		radix.setStatsEnabled(true);
+		for (int i = 0; i < 100; i++) {
+			skipList.insert(i, i);
+			radix.insert("k" + i, i);
+		}
+		s = skipList.stats();
+		System.out.println(s.size() == 100 && s.inserts() == 100 && Arrays.stream(s.histogram()).sum() == 100); // true
+		s = radix.stats();
+		System.out.println(s.size() == 100 && s.inserts() == 100 && Arrays.stream(s.histogram()).sum() == 100); // true
+	}
+
+	private static void testStreams() {
+		System.out.println("===== New Test Case ========================");
+		System.out.println("test stream()/parallelStream()");
+		List<Dictionary<Integer, Integer>> dicts = List.of(new HashDictionary<>(3), new HashDictionary<>(3, true),
+				new SortedArrayDictionary<>(), new BinaryTreeDictionary<>(), new RobinHoodHashDictionary<>());
+		final int n = 5000;
+		for (Dictionary<Integer, Integer> dict : dicts) {
+			for (int i = 0; i < n; i++)
+				dict.insert((i * 7919) % n, i);
+			long sum = dict.parallelStream().mapToLong(Dictionary.Entry::getValue).sum();
+			Spliterator<Dictionary.Entry<Integer, Integer>> right = dict.spliterator();
+			Spliterator<Dictionary.Entry<Integer, Integer>> left = right.trySplit();
+			long[] count = new long[1];
+			left.forEachRemaining(e -> count[0]++);
+			while (right.tryAdvance(e -> count[0]++))
+				;
+			System.out.println(sum == (long) n * (n - 1) / 2 && dict.stream().count() == n && count[0] == n); // true (5x)
+		}
+
+		// Geordnete Dictionaries behalten die Reihenfolge auch parallel bei
+		for (OrderedDictionary<Integer, Integer> dict : List.of((SortedArrayDictionary<Integer, Integer>) dicts.get(2),
+				(BinaryTreeDictionary<Integer, Integer>) dicts.get(3))) {
+			List<Integer> keys = dict.parallelStream().map(Dictionary.Entry::getKey).collect(Collectors.toList());
+			boolean ascending = keys.size() == n;
+			for (int i = 0; i < keys.size(); i++)
+				ascending &= keys.get(i) == i;
+			Spliterator<Dictionary.Entry<Integer, Integer>> sp = dict.spliterator();
+			System.out.println(ascending && sp.hasCharacteristics(Spliterator.SORTED)
+					&& sp.getExactSizeIfKnown() == n); // true (2x)
+		}
+
+		// bersetzungen pro Anfangsbuchstabe
+		Dictionary<String, String> words = new BinaryTreeDictionary<>();
+		String[] german = { "Apfel", "Auto", "Baum", "Brot", "Buch", "Haus", "Hund", "Katze", "Tisch", "Tr" };
+		for (String w : german)
+			words.insert(w, w.toLowerCase());
+		Map<Character, Long> perLetter = words.parallelStream()
+				.collect(Collectors.groupingBy(e -> e.getKey().charAt(0), Collectors.counting()));
+		System.out.println(perLetter.equals(Map.of('A', 2L, 'B', 3L, 'H', 2L, 'K', 1L, 'T', 2L))); // true
+	}
+
+	private static void testPrimitiveDictionaries() {
+		System.out.println("===== New Test Case ========================");
+		System.out.println("test primitive dictionaries");
+		IntIntHashDictionary iih = new IntIntHashDictionary(3, -1);
+		IntIntSortedArrayDictionary iis = new IntIntSortedArrayDictionary(3, -1);
+		for (int i = 0; i < 100; i++) {
+			iih.put(i * 7, i);
+			iis.put(i * 7, i);
+		}
+		System.out.println(iih.size() == 100 && iis.size() == 100); // true
+		System.out.println(iih.get(70) == 10 && iis.get(70) == 10); // true
+		System.out.println(iih.get(71) == -1 && iis.get(71) == -1); // true
+		System.out.println(iih.remove(70) == 10 && iis.remove(70) == 10); // true
+		System.out.println(iih.search(70) == null && iis.search(70) == null); // true
+		int sum = 0;
+		for (IntIntCursor c = iis.cursor(); c.advance();)
+			sum += c.value();
+		System.out.println(sum == 4940); // true
+
+		LongObjectHashDictionary<String> lo = new LongObjectHashDictionary<>();
+		System.out.println(lo.put(1L << 40, "big") == null); // true
+		System.out.println(lo.get(1L << 40).equals("big")); // true
+		System.out.println(lo.search(1L << 40).equals("big")); // true
+
+		ObjectIntHashDictionary<String> oi = new ObjectIntHashDictionary<>();
+		oi.addTo("gehen", 1);
+		oi.addTo("gehen", 1);
+		System.out.println(oi.get("gehen") == 2); // true
+		System.out.println(oi.removeKey("gehen") == 2 && oi.size() == 0); // true
+	}
+
+	private static void testOrderedDict(OrderedDictionary<String, String> dict) {
+		System.out.println("test ordered " + dict.getClass());
+		System.out.println(dict.first().getKey().equals("arbeiten")); // true
+		System.out.println(dict.last().getKey().equals("tauchen")); // true
+		System.out.println(dict.floor("schwach").getKey().equals("schreien")); // true
+		System.out.println(dict.ceiling("schwach").getKey().equals("schwimmen")); // true
+		System.out.println(dict.floor("aaa") == null); // true
+		for (var it = dict.range("r", "t"); it.hasNext();) {
+			Dictionary.Entry<String, String> e = it.next();
+			System.out.println(e.getKey() + ": " + e.getValue()); // reden ... starten
+		}
 	}
 
 	private static void testDict(Dictionary<String, String> dict) {
@@ -113,5 +564,17 @@ public class DictionaryTest {
 		for (Dictionary.Entry<String, String> e : dict) {
 			System.out.println(e.getKey() + ": " + e.getValue() + " search: " + dict.search(e.getKey()));
 		}
+		dict.insertAll(List.of(new Dictionary.Entry<>("laufen", "run"), new Dictionary.Entry<>("gehen", "walk"),
+				new Dictionary.Entry<>("laufen", "jog")));
+		System.out.println(dict.size()); // 18
+		System.out.println(dict.search("laufen").equals("jog")); // true
+		System.out.println(dict.search("gehen").equals("walk")); // true
+		System.out.println(dict.searchAll(List.of("gehen", "fliegen", "laufen"))
+				.equals(Arrays.asList("walk", null, "jog"))); // true
+		dict.insertAll(Map.of("fliegen", "fly", "essen", "eat"));
+		System.out.println(dict.size()); // 20
+		System.out.println(dict.removeAll(List.of("fliegen", "essen", "nichts")) == 2); // true
+		System.out.println(dict.size()); // 18
+
 	}
 }
@@ -0,0 +1,345 @@
+package dictionary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+
+/**
+ * Makes the mutations of any dictionary durable.
+ * <p>
+ * Every insert and remove is appended to a write-ahead log in the directory
+ * dir. The log is forced to disk once groupCommitSize mutations are pending;
+ * concurrent writers that wait for the same force share it (group commit).
+ * After checkpointInterval logged mutations, the whole dictionary is written
+ * to a compacted snapshot file and the log is truncated. On construction the
+ * snapshot is loaded and only the log tail written after it is replayed;
+ * a torn record at the end of the log is discarded.
+ * <p>
+ * Log and snapshot consist of records: int payload length, int CRC32 of
+ * the payload, payload (byte operation, key, value for inserts).
+ * All methods are synchronized; close the dictionary to force pending
+ * mutations to disk.
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public class DurableDictionary<K, V> implements Dictionary<K, V>, Closeable {
+
+	/**
+	 * Binary encoding of keys or values in log and snapshot.
+	 * @param <T> the encoded type
+	 */
+	public interface Codec<T> {
+		void write(DataOutput out, T t) throws IOException;
+
+		T read(DataInput in) throws IOException;
+
+		/**
+		 * Length-prefixed UTF-8 strings.
+		 */
+		Codec<String> STRING = new Codec<String>() {
+			@Override
+			public void write(DataOutput out, String s) throws IOException {
+				byte[] b = s.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(b.length);
+				out.write(b);
+			}
+
+			@Override
+			public String read(DataInput in) throws IOException {
+				byte[] b = new byte[in.readInt()];
+				in.readFully(b);
+				return new String(b, StandardCharsets.UTF_8);
+			}
+		};
+	}
+
+	private static final byte INSERT = 1;
+	private static final byte REMOVE = 2;
+	private static final String LOG_FILE = "wal.log";
+	private static final String SNAPSHOT_FILE = "snapshot.dat";
+
+	private final Dictionary<K, V> dict;
+	private final Path dir;
+	private final Codec<K> keyCodec;
+	private final Codec<V> valueCodec;
+	private final int groupCommitSize;
+	private final int checkpointInterval;
+
+	private final FileChannel log;
+	private final DataOutputStream logOut;
+	private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+	private final DataOutputStream payloadOut = new DataOutputStream(payload);
+	private final CRC32 crc = new CRC32();
+	// Held while forcing the log, so that writers can append meanwhile
+	private final Object syncLock = new Object();
+	private long appended;
+	private volatile long durable;
+	private int sinceCheckpoint;
+
+	/**
+	 * Opens or creates the log in dir and recovers dict from it.
+	 * @param dict dictionary to be made durable (usually empty)
+	 * @param dir directory of log and snapshot
+	 * @param keyCodec encoding of the keys
+	 * @param valueCodec encoding of the values
+	 * @param groupCommitSize number of mutations after which the log is forced (1: every mutation)
+	 * @param checkpointInterval number of logged mutations after which a snapshot is written
+	 * @throws IOException if the files cannot be read or created
+	 */
+	public DurableDictionary(Dictionary<K, V> dict, Path dir, Codec<K> keyCodec, Codec<V> valueCodec,
+			int groupCommitSize, int checkpointInterval) throws IOException {
+		this.dict = dict;
+		this.dir = dir;
+		this.keyCodec = keyCodec;
+		this.valueCodec = valueCodec;
+		this.groupCommitSize = Math.max(1, groupCommitSize);
+		this.checkpointInterval = checkpointInterval;
+		Files.createDirectories(dir);
+		Path snapshot = dir.resolve(SNAPSHOT_FILE);
+		if (Files.exists(snapshot))
+			replay(snapshot);
+		Path logFile = dir.resolve(LOG_FILE);
+		long validLength = Files.exists(logFile) ? replay(logFile) : 0;
+		this.log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		// Cut off a torn record from a crash
+		log.truncate(validLength);
+		log.position(validLength);
+		this.logOut = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(log)));
+	}
+
+	@Override
+	public V insert(K key, V value) {
+		V r;
+		synchronized (this) {
+			r = dict.insert(key, value);
+			append(INSERT, key, value);
+		}
+		afterAppend();
+		return r;
+	}
+
+	@Override
+	public synchronized V search(K key) {
+		return dict.search(key);
+	}
+
+	@Override
+	public V remove(K key) {
+		V r;
+		synchronized (this) {
+			r = dict.remove(key);
+			if (r == null)
+				return null;
+			append(REMOVE, key, null);
+		}
+		afterAppend();
+		return r;
+	}
+
+	@Override
+	public synchronized int size() {
+		return dict.size();
+	}
+
+	@Override
+	public synchronized DictionaryStats stats() {
+		return dict.stats();
+	}
+
+	@Override
+	public synchronized void setStatsEnabled(boolean enabled) {
+		dict.setStatsEnabled(enabled);
+	}
+
+	/**
+	 * Returns an iterator over the wrapped dictionary.
+	 * The caller must not mutate the dictionary during the iteration.
+	 */
+	@Override
+	public synchronized Iterator<Entry<K, V>> iterator() {
+		return dict.iterator();
+	}
+
+	/**
+	 * Forces all logged mutations to disk. A thread that finds its mutations
+	 * already forced by another thread returns without a further force.
+	 */
+	public void sync() {
+		synchronized (syncLock) {
+			long target;
+			synchronized (this) {
+				target = appended;
+				if (durable >= target)
+					return;
+				try {
+					logOut.flush();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+			try {
+				log.force(false);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			durable = target;
+		}
+	}
+
+	/**
+	 * Returns the wrapped dictionary; it stays usable after close.
+	 * Changes made to it directly are not logged.
+	 * @return the wrapped dictionary
+	 */
+	public Dictionary<K, V> unwrap() {
+		return dict;
+	}
+
+	/**
+	 * Writes the dictionary to a new snapshot file and truncates the log.
+	 * The snapshot replaces the old one atomically; if the process dies
+	 * before the log is truncated, replaying the log again is harmless.
+	 */
+	public void checkpoint() {
+		synchronized (syncLock) {
+			synchronized (this) {
+				try {
+					Path tmp = dir.resolve(SNAPSHOT_FILE + ".tmp");
+					try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+							StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+						DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch)));
+						for (Entry<K, V> e : dict)
+							writeRecord(out, INSERT, e.getKey(), e.getValue());
+						out.flush();
+						ch.force(true);
+					}
+					Files.move(tmp, dir.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.ATOMIC_MOVE);
+					logOut.flush();
+					log.truncate(0);
+					log.position(0);
+					log.force(true);
+					durable = appended;
+					sinceCheckpoint = 0;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Forces pending mutations to disk and closes the log.
+	 */
+	@Override
+	public void close() throws IOException {
+		sync();
+		synchronized (this) {
+			logOut.close();
+		}
+	}
+
+	private void append(byte op, K key, V value) {
+		try {
+			writeRecord(logOut, op, key, value);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		appended++;
+		sinceCheckpoint++;
+	}
+
+	private void afterAppend() {
+		boolean checkpointDue;
+		boolean syncDue;
+		synchronized (this) {
+			checkpointDue = sinceCheckpoint >= checkpointInterval;
+			syncDue = appended - durable >= groupCommitSize;
+		}
+		if (checkpointDue)
+			checkpoint();
+		else if (syncDue)
+			sync();
+	}
+
+	private void writeRecord(DataOutputStream out, byte op, K key, V value) throws IOException {
+		payload.reset();
+		payloadOut.writeByte(op);
+		keyCodec.write(payloadOut, key);
+		if (op == INSERT)
+			valueCodec.write(payloadOut, value);
+		byte[] b = payload.toByteArray();
+		crc.reset();
+		crc.update(b);
+		out.writeInt(b.length);
+		out.writeInt((int) crc.getValue());
+		out.write(b);
+	}
+
+	/**
+	 * Applies the records of file to the wrapped dictionary. Replay stops at
+	 * the first record that is incomplete, fails the checksum or cannot be
+	 * decoded; a crash may leave such a record or a zero-filled tail.
+	 * @return the length of the valid prefix of the file
+	 */
+	private long replay(Path file) throws IOException {
+		long fileSize = Files.size(file);
+		long valid = 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			while (true) {
+				int length;
+				byte op;
+				K key;
+				V value = null;
+				try {
+					length = in.readInt();
+					int checksum = in.readInt();
+					// At least the op byte, and not beyond the end of the file
+					if (length < 1 || length > fileSize - valid - 8)
+						break;
+					byte[] b = new byte[length];
+					in.readFully(b);
+					crc.reset();
+					crc.update(b);
+					if ((int) crc.getValue() != checksum)
+						break;
+					DataInputStream record = new DataInputStream(new ByteArrayInputStream(b));
+					op = record.readByte();
+					if (op != INSERT && op != REMOVE)
+						break;
+					key = keyCodec.read(record);
+					if (op == INSERT)
+						value = valueCodec.read(record);
+					if (record.available() != 0)
+						break;
+				} catch (IOException e) {
+					// Truncated or undecodable record
+					break;
+				}
+				if (op == INSERT)
+					dict.insert(key, value);
+				else
+					dict.remove(key);
+				valid += 8 + length;
+			}
+		}
+		return valid;
+	}
+}
@@ -0,0 +1,182 @@
+package dictionary;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable, read-optimized form of a SortedArrayDictionary, created by
+ * SortedArrayDictionary.freeze().
+ * <p>
+ * The keys are stored in Eytzinger order (breadth-first layout of the
+ * implicit search tree): the root is at index 1, the children of index k at
+ * 2k and 2k + 1. The first levels of every search therefore share a few
+ * cache lines, and the 16 candidates four levels below k lie contiguously
+ * at 16k..16k + 15, so the hardware prefetcher can fetch them early.
+ * The search loop calls compareTo once per level and computes the next
+ * index arithmetically instead of branching on the result; equality is
+ * checked once after the loop. For String keys the first four chars of
+ * every key are additionally stored inline in a long array, so most levels
+ * are decided without touching the String object.
+ * <p>
+ * insert and remove throw UnsupportedOperationException.
+ * The iterator returns the entries in ascending key order.
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public class FrozenSortedArrayDictionary<K extends Comparable<? super K>, V> implements Dictionary<K, V> {
+
+	// 1-based Eytzinger layout; index 0 is unused
+	private final Object[] keys;
+	private final Object[] values;
+	// For String keys: the first four chars of every key, in the same layout
+	private final long[] prefixes;
+	private final int size;
+
+	/**
+	 * @param sorted entries in strictly ascending key order
+	 * @param size number of entries to be used
+	 */
+	FrozenSortedArrayDictionary(Entry<K, V>[] sorted, int size) {
+		this.size = size;
+		this.keys = new Object[size + 1];
+		this.values = new Object[size + 1];
+		// In-order traversal of the implicit tree visits the indices in key order
+		int k = firstIndex();
+		for (int i = 0; i < size; i++) {
+			keys[k] = sorted[i].getKey();
+			values[k] = sorted[i].getValue();
+			k = successor(k);
+		}
+		this.prefixes = allStrings() ? new long[size + 1] : null;
+		if (prefixes != null)
+			for (k = 1; k <= size; k++)
+				prefixes[k] = prefix((String) keys[k]);
+	}
+
+	/**
+	 * Not supported: the dictionary is immutable.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public V insert(K key, V value) {
+		throw new UnsupportedOperationException("FrozenSortedArrayDictionary is read-only");
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V search(K key) {
+		if (prefixes != null && key instanceof String)
+			return searchString((String) key);
+		int k = 1;
+		while (k <= size) {
+			int c = key.compareTo((K) keys[k]);
+			// Right child if keys[k] < key, left child otherwise
+			k = (k << 1) + (int) (-(long) c >>> 63);
+		}
+		// Undo the right turns below the last left turn: k becomes the lower bound
+		k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+		if (k != 0 && key.compareTo((K) keys[k]) == 0)
+			return (V) values[k];
+		return null;
+	}
+
+	/**
+	 * Not supported: the dictionary is immutable.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public V remove(K key) {
+		throw new UnsupportedOperationException("FrozenSortedArrayDictionary is read-only");
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> iterator() {
+		return new Iterator<Dictionary.Entry<K, V>>() {
+			int currentIndex = firstIndex();
+			int count = 0;
+
+			@Override
+			public boolean hasNext() {
+				return count < size;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public Entry<K, V> next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				Entry<K, V> entry = new Entry<K, V>((K) keys[currentIndex], (V) values[currentIndex]);
+				currentIndex = successor(currentIndex);
+				count++;
+				return entry;
+			}
+		};
+	}
+
+	/**
+	 * Like search, but compares the inlined prefixes first, so that String
+	 * objects are only dereferenced if the first four chars are equal.
+	 */
+	@SuppressWarnings("unchecked")
+	private V searchString(String key) {
+		long p = prefix(key);
+		int k = 1;
+		while (k <= size) {
+			int c = Long.compareUnsigned(p, prefixes[k]);
+			if (c == 0)
+				c = key.compareTo((String) keys[k]);
+			k = (k << 1) + (int) (-(long) c >>> 63);
+		}
+		k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+		if (k != 0 && key.equals(keys[k]))
+			return (V) values[k];
+		return null;
+	}
+
+	/**
+	 * Packs the first four chars of s into a long, padded with zeros.
+	 * If prefix(a) &lt; prefix(b) (unsigned), then a &lt; b.
+	 */
+	private static long prefix(String s) {
+		long p = 0;
+		for (int i = 0; i < 4; i++)
+			p = (p << 16) | (i < s.length() ? s.charAt(i) : 0);
+		return p;
+	}
+
+	private boolean allStrings() {
+		for (int k = 1; k <= size; k++)
+			if (!(keys[k] instanceof String))
+				return false;
+		return size > 0;
+	}
+
+	/**
+	 * Returns the index of the smallest key (leftmost node).
+	 */
+	private int firstIndex() {
+		int k = 1;
+		while (2 * k <= size)
+			k *= 2;
+		return k;
+	}
+
+	/**
+	 * Returns the in-order successor of index k, or 0 after the largest key.
+	 */
+	private int successor(int k) {
+		if (2 * k + 1 <= size) {
+			k = 2 * k + 1;
+			while (2 * k <= size)
+				k *= 2;
+			return k;
+		}
+		// Climb while k is a right child, then once more
+		return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+	}
+}
@@ -1,129 +1,321 @@
 package dictionary;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 public class HashDictionary<K, V> implements Dictionary<K, V> {
 
-	private LinkedList<Entry<K, V>> tab[];
+	private Node<K, V> tab[];
+	// Table still being drained by an incremental rehash, otherwise null.
+	// Buckets below migrateIndex have already been moved to tab.
+	private Node<K, V> oldTab[];
+	private int migrateIndex;
+	private final boolean incremental;
 	private int size;
+	// Event counters for stats(), null while counting is disabled
+	private DictionaryStats.Counters counters;
 	private static final int LOAD_FACTOR = 2;
+	private static final int MIGRATE_BUCKETS = 4;
 
-	@SuppressWarnings("unchecked")
 	public HashDictionary(int capacity) {
+		this(capacity, false);
+	}
+
+	/**
+	 * Creates a hash dictionary with the specified initial capacity.
+	 * In incremental mode the table grows without a rehash pause: the old and
+	 * the new table are kept side by side and every insert or remove migrates
+	 * a bounded number of buckets.
+	 * @param capacity initial table size (should be a prime)
+	 * @param incremental true to enable incremental rehashing
+	 */
+	@SuppressWarnings("unchecked")
+	public HashDictionary(int capacity, boolean incremental) {
 		if (!isPrime(capacity)) {
 			System.out.println("[WARN] Specified capacity is not a prime!");
 		}
-		this.tab = new LinkedList[capacity];
+		this.tab = new Node[capacity];
+		this.incremental = incremental;
 	}
 
 	@Override
 	public V insert(K key, V value) {
-		int hashAddress = getHashAddress(key);
-		if (search(key) == null) {
-			if (!isLoadFactorOk()) {
-				doubleCapacity();
-				hashAddress = getHashAddress(key);
-			}
-			if (tab[hashAddress] == null) {
-				tab[hashAddress] = new LinkedList<Entry<K, V>>();
-			}
-			tab[hashAddress].add(new Entry<K, V>(key, value));
-			size++;
-		} else {
-			for (var entry : tab[hashAddress]) {
-				if (entry.getKey().equals(key)) {
-					return entry.setValue(value);
-				}
-			}
+		migrate();
+		int hash = key.hashCode();
+		Node<K, V>[] t = tableOf(hash);
+		int hashAddress = getHashAddress(hash, t.length);
+		Node<K, V> last = null;
+		for (Node<K, V> p = t[hashAddress]; p != null; p = p.next) {
+			if (p.hash == hash && p.getKey().equals(key))
+				return p.setValue(value);
+			last = p;
 		}
+		link(t, hashAddress, last, new Node<K, V>(hash, key, value));
 		return null;
-
 	}
 
 	@Override
 	public V search(K key) {
-		int hashCode = getHashAddress(key);
-		if (tab[hashCode] != null) {
-			for (var entry : tab[hashCode]) {
-				if (entry.getKey().equals(key))
-					return entry.getValue();
-			}
+		int hash = key.hashCode();
+		Node<K, V>[] t = tableOf(hash);
+		for (Node<K, V> p = t[getHashAddress(hash, t.length)]; p != null; p = p.next) {
+			if (p.hash == hash && p.getKey().equals(key))
+				return p.getValue();
 		}
 		return null;
 	}
 
 	@Override
 	public V remove(K key) {
-		if (search(key) != null) {
-			int hashCode = getHashAddress(key);
-			for (int i = 0; i < tab[hashCode].size(); i++) {
-				if (tab[hashCode].get(i).getKey().equals(key)) {
-					size--;
-					return tab[hashCode].remove(i).getValue();
-				}
+		migrate();
+		int hash = key.hashCode();
+		Node<K, V>[] t = tableOf(hash);
+		int hashAddress = getHashAddress(hash, t.length);
+		Node<K, V> prev = null;
+		for (Node<K, V> p = t[hashAddress]; p != null; prev = p, p = p.next) {
+			if (p.hash == hash && p.getKey().equals(key)) {
+				unlink(t, hashAddress, prev, p);
+				return p.getValue();
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Associates value with key only if key is not yet contained.
+	 * Lookup and insertion share a single pass over the chain.
+	 * @param key key with which the specified value is to be associated
+	 * @param value value to be associated with the specified key
+	 * @return the value already associated with key, or null if value was inserted.
+	 */
+	@Override
+	public V putIfAbsent(K key, V value) {
+		migrate();
+		int hash = key.hashCode();
+		Node<K, V>[] t = tableOf(hash);
+		int hashAddress = getHashAddress(hash, t.length);
+		Node<K, V> last = null;
+		for (Node<K, V> p = t[hashAddress]; p != null; p = p.next) {
+			if (p.hash == hash && p.getKey().equals(key))
+				return p.getValue();
+			last = p;
+		}
+		link(t, hashAddress, last, new Node<K, V>(hash, key, value));
+		return null;
+	}
+
+	/**
+	 * Replaces the value of key by f(key, oldValue), where oldValue is null
+	 * if key is not contained. If f returns null, the entry is removed.
+	 * Lookup and update share a single pass over the chain.
+	 * @param key key whose value is to be computed
+	 * @param f function computing the new value
+	 * @return the new value associated with key, or null if there is none.
+	 */
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> f) {
+		migrate();
+		int hash = key.hashCode();
+		Node<K, V>[] t = tableOf(hash);
+		int hashAddress = getHashAddress(hash, t.length);
+		Node<K, V> prev = null;
+		for (Node<K, V> p = t[hashAddress]; p != null; prev = p, p = p.next) {
+			if (p.hash == hash && p.getKey().equals(key)) {
+				V v = f.apply(key, p.getValue());
+				if (v == null)
+					unlink(t, hashAddress, prev, p);
+				else
+					p.setValue(v);
+				return v;
+			}
+		}
+		V v = f.apply(key, null);
+		if (v != null)
+			link(t, hashAddress, prev, new Node<K, V>(hash, key, v));
+		return v;
+	}
+
 	@Override
 	public int size() {
 		return this.size;
 	}
 
+	/**
+	 * The histogram counts the buckets by chain length, over both tables
+	 * during an incremental rehash. With incremental rehashing, resize times
+	 * do not include the migration, which is spread over later operations.
+	 */
+	@Override
+	public DictionaryStats stats() {
+		long[] histogram = countChains(tab, new long[1]);
+		if (oldTab != null)
+			histogram = countChains(oldTab, histogram);
+		return new DictionaryStats(size, (double) size / tab.length, "chain length", histogram, -1, counters);
+	}
+
+	@Override
+	public void setStatsEnabled(boolean enabled) {
+		counters = enabled ? new DictionaryStats.Counters() : null;
+	}
+
+	private long[] countChains(Node<K, V>[] t, long[] histogram) {
+		for (Node<K, V> p : t) {
+			int n = 0;
+			for (; p != null; p = p.next)
+				n++;
+			if (n >= histogram.length)
+				histogram = Arrays.copyOf(histogram, n + 1);
+			histogram[n]++;
+		}
+		return histogram;
+	}
+
 	@Override
 	public Iterator<Entry<K, V>> iterator() {
 		return new Iterator<Dictionary.Entry<K, V>>() {
+			// During an incremental rehash the old table is visited first
+			Node<K, V>[] t = (oldTab != null) ? oldTab : tab;
 			int tabIndex = 0;
-			int listIndex = 0;
+			Node<K, V> next = advance(null);
 
-			@Override
-			public boolean hasNext() {
-				if (tabIndex < tab.length) {
-					if (tab[tabIndex] == null) {
-						tabIndex++;
-						return this.hasNext();
+			private Node<K, V> advance(Node<K, V> p) {
+				if (p != null && p.next != null)
+					return p.next;
+				while (true) {
+					if (tabIndex < t.length) {
+						if (t[tabIndex++] != null)
+							return t[tabIndex - 1];
+					} else if (t != tab) {
+						t = tab;
+						tabIndex = 0;
+					} else {
+						return null;
 					}
-					if (listIndex < tab[tabIndex].size())
-						return true;
 				}
-				return false;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
 			}
 
 			@Override
 			public Entry<K, V> next() {
-				Entry<K, V> entry = tab[tabIndex].get(listIndex++);
-				if (tab[tabIndex].size() == listIndex) {
-					tabIndex++;
-					listIndex = 0;
-				}
+				if (next == null)
+					throw new NoSuchElementException();
+				Node<K, V> entry = next;
+				next = advance(next);
 				return entry;
 			}
 		};
 	}
 
+	/**
+	 * Splits by bucket range. During an incremental rehash both tables are
+	 * covered, the old one first. Only the unsplit spliterator is SIZED;
+	 * after a split the size of each half is an estimate.
+	 */
+	@Override
+	public Spliterator<Entry<K, V>> spliterator() {
+		int n = (oldTab != null) ? oldTab.length + tab.length : tab.length;
+		return new BucketSpliterator(0, n, size, true);
+	}
+
+	private void link(Node<K, V>[] t, int hashAddress, Node<K, V> last, Node<K, V> node) {
+		if (last == null)
+			t[hashAddress] = node;
+		else
+			last.next = node;
+		size++;
+		if (counters != null)
+			counters.inserts++;
+		if (!isLoadFactorOk())
+			doubleCapacity();
+	}
+
+	private void unlink(Node<K, V>[] t, int hashAddress, Node<K, V> prev, Node<K, V> p) {
+		if (prev == null)
+			t[hashAddress] = p.next;
+		else
+			prev.next = p.next;
+		size--;
+	}
+
 	@SuppressWarnings("unchecked")
 	private void doubleCapacity() {
-		List<Entry<K, V>> entries = new ArrayList<>(this.size);
-		for (var v : this)
-			entries.add(v);
-		this.tab = new LinkedList[calculateNewPrime(this.tab.length)];
-		for (var v : entries)
-			this.insert(v.getKey(), v.getValue());
+		long start = (counters != null) ? System.nanoTime() : 0;
+		finishMigration();
+		Node<K, V>[] newTab = new Node[calculateNewPrime(this.tab.length)];
+		if (incremental) {
+			this.oldTab = this.tab;
+			this.migrateIndex = 0;
+			this.tab = newTab;
+		} else {
+			for (var bucket : this.tab)
+				moveBucket(bucket, newTab);
+			this.tab = newTab;
+		}
+		if (counters != null)
+			counters.resized(start);
+	}
+
+	/**
+	 * Moves at most MIGRATE_BUCKETS buckets of the old table into the new one.
+	 */
+	private void migrate() {
+		if (oldTab == null)
+			return;
+		for (int n = 0; n < MIGRATE_BUCKETS && migrateIndex < oldTab.length; n++) {
+			moveBucket(oldTab[migrateIndex], tab);
+			oldTab[migrateIndex++] = null;
+		}
+		if (migrateIndex == oldTab.length)
+			oldTab = null;
+	}
+
+	private void finishMigration() {
+		while (oldTab != null)
+			migrate();
+	}
+
+	/**
+	 * Relinks the nodes of a chain into target; no nodes are allocated.
+	 */
+	private void moveBucket(Node<K, V> p, Node<K, V>[] target) {
+		while (p != null) {
+			Node<K, V> next = p.next;
+			int hashAddress = getHashAddress(p.hash, target.length);
+			p.next = target[hashAddress];
+			target[hashAddress] = p;
+			p = next;
+			if (counters != null)
+				counters.insertMoves++;
+		}
+	}
+
+	/**
+	 * Returns the table holding the bucket for hash: the old table while
+	 * the bucket has not been migrated yet, the current table otherwise.
+	 */
+	private Node<K, V>[] tableOf(int hash) {
+		if (oldTab != null && getHashAddress(hash, oldTab.length) >= migrateIndex)
+			return oldTab;
+		return tab;
 	}
 
 	private boolean isLoadFactorOk() {
 		return (this.size / this.tab.length > LOAD_FACTOR) ? false : true;
 	}
 
-	private int getHashAddress(K key) {
-		int adr = key.hashCode();
+	private int getHashAddress(int hash, int length) {
+		int adr = hash % length;
 		if (adr < 0)
 			adr = -adr;
-		return adr % tab.length;
+		return adr;
 	}
 
 	private int calculateNewPrime(int oldPrime) {
@@ -147,4 +339,86 @@ public class HashDictionary<K, V> implements Dictionary<K, V> {
 
 		return true;
 	}
+
+	/**
+	 * Spliterator over the buckets [index, fence); bucket numbers beyond the
+	 * old table refer to the current table.
+	 */
+	private final class BucketSpliterator implements Spliterator<Entry<K, V>> {
+		private int index;
+		private final int fence;
+		private Node<K, V> current;
+		private long est;
+		private boolean exact;
+
+		BucketSpliterator(int index, int fence, long est, boolean exact) {
+			this.index = index;
+			this.fence = fence;
+			this.est = est;
+			this.exact = exact;
+		}
+
+		private Node<K, V> bucket(int i) {
+			int n = (oldTab != null) ? oldTab.length : 0;
+			return (i < n) ? oldTab[i] : tab[i - n];
+		}
+
+		@Override
+		public Spliterator<Entry<K, V>> trySplit() {
+			int mid = (index + fence) >>> 1;
+			if (current != null || index >= mid)
+				return null;
+			est >>>= 1;
+			exact = false;
+			BucketSpliterator prefix = new BucketSpliterator(index, mid, est, false);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+			while (current == null) {
+				if (index >= fence)
+					return false;
+				current = bucket(index++);
+			}
+			Node<K, V> p = current;
+			current = p.next;
+			action.accept(p);
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+			for (Node<K, V> p = current; p != null; p = p.next)
+				action.accept(p);
+			current = null;
+			for (; index < fence; index++)
+				for (Node<K, V> p = bucket(index); p != null; p = p.next)
+					action.accept(p);
+		}
+
+		@Override
+		public long estimateSize() {
+			return est;
+		}
+
+		@Override
+		public int characteristics() {
+			return (exact ? Spliterator.SIZED : 0) | Spliterator.DISTINCT | Spliterator.NONNULL;
+		}
+	}
+
+	/**
+	 * Chain node; the node itself is the dictionary entry.
+	 */
+	private static class Node<K, V> extends Entry<K, V> {
+		final int hash;
+		Node<K, V> next;
+
+		Node(int hash, K key, V value) {
+			super(key, value);
+			this.hash = hash;
+		}
+	}
 }
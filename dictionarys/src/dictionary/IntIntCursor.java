@@ -0,0 +1,30 @@
+package dictionary;
+
+/**
+ * Cursor over the entries of a dictionary with int keys and int values.
+ * Unlike an Iterator no Entry object is allocated per element:
+ * <pre>
+ * for (IntIntCursor c = dict.cursor(); c.advance();)
+ *     use(c.key(), c.value());
+ * </pre>
+ */
+public interface IntIntCursor {
+
+	/**
+	 * Moves the cursor to the next entry.
+	 * @return false if there is no further entry.
+	 */
+	boolean advance();
+
+	/**
+	 * Returns the key of the current entry.
+	 * @return the key of the current entry
+	 */
+	int key();
+
+	/**
+	 * Returns the value of the current entry.
+	 * @return the value of the current entry
+	 */
+	int value();
+}
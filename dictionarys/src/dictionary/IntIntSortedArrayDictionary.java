@@ -0,0 +1,207 @@
+package dictionary;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Sorted array dictionary from int keys to int values without boxing.
+ * Keys and values are kept in two parallel primitive arrays ordered by key.
+ * The primitive methods (put, get, remove, cursor) are the hot path;
+ * the Dictionary methods are adapters that box.
+ */
+public class IntIntSortedArrayDictionary implements Dictionary<Integer, Integer> {
+
+	private static final int DEF_CAPACITY = 16;
+	private int size;
+	private int[] keys;
+	private int[] values;
+	private final int noValue;
+	// Event counters for stats(), null while counting is disabled
+	private DictionaryStats.Counters counters;
+
+	public IntIntSortedArrayDictionary() {
+		this(DEF_CAPACITY, 0);
+	}
+
+	/**
+	 * @param capacity initial capacity
+	 * @param noValue value returned by the primitive methods for missing keys
+	 */
+	public IntIntSortedArrayDictionary(int capacity, int noValue) {
+		this.keys = new int[Math.max(capacity, 1)];
+		this.values = new int[keys.length];
+		this.noValue = noValue;
+	}
+
+	/**
+	 * Associates value with key.
+	 * @param key key with which the specified value is to be associated
+	 * @param value value to be associated with the specified key
+	 * @return the previous value associated with key, or noValue if there was none.
+	 */
+	public int put(int key, int value) {
+		int i = searchKey(key);
+		if (i >= 0) {
+			int r = values[i];
+			values[i] = value;
+			return r;
+		}
+		insertAt(-i - 1, key, value);
+		return noValue;
+	}
+
+	/**
+	 * @param key the key whose value is to be returned.
+	 * @return the value associated with key, or noValue if there is none.
+	 */
+	public int get(int key) {
+		int i = searchKey(key);
+		return (i >= 0) ? values[i] : noValue;
+	}
+
+	/**
+	 * @param key key to look up
+	 * @return true if key is contained in this dictionary.
+	 */
+	public boolean containsKey(int key) {
+		return searchKey(key) >= 0;
+	}
+
+	/**
+	 * @param key key whose mapping is to be removed.
+	 * @return the previous value associated with key, or noValue if there was none.
+	 */
+	public int remove(int key) {
+		int i = searchKey(key);
+		if (i < 0)
+			return noValue;
+		int r = values[i];
+		removeAt(i);
+		return r;
+	}
+
+	/**
+	 * Returns a cursor over all entries in ascending key order.
+	 * @return a cursor positioned before the first entry
+	 */
+	public IntIntCursor cursor() {
+		return new IntIntCursor() {
+			int index = -1;
+
+			@Override
+			public boolean advance() {
+				return ++index < size;
+			}
+
+			@Override
+			public int key() {
+				return keys[index];
+			}
+
+			@Override
+			public int value() {
+				return values[index];
+			}
+		};
+	}
+
+	@Override
+	public Integer insert(Integer key, Integer value) {
+		int i = searchKey(key);
+		if (i >= 0) {
+			int r = values[i];
+			values[i] = value;
+			return r;
+		}
+		insertAt(-i - 1, key, value);
+		return null;
+	}
+
+	@Override
+	public Integer search(Integer key) {
+		int i = searchKey(key);
+		return (i >= 0) ? values[i] : null;
+	}
+
+	@Override
+	public Integer remove(Integer key) {
+		int i = searchKey(key);
+		if (i < 0)
+			return null;
+		int r = values[i];
+		removeAt(i);
+		return r;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * The load factor is the fill ratio of the arrays.
+	 */
+	@Override
+	public DictionaryStats stats() {
+		return new DictionaryStats(size, (double) size / keys.length, null, new long[0], -1, counters);
+	}
+
+	@Override
+	public void setStatsEnabled(boolean enabled) {
+		counters = enabled ? new DictionaryStats.Counters() : null;
+	}
+
+	@Override
+	public Iterator<Entry<Integer, Integer>> iterator() {
+		return new Iterator<Dictionary.Entry<Integer, Integer>>() {
+			int currentIndex = 0;
+
+			@Override
+			public boolean hasNext() {
+				return currentIndex < size;
+			}
+
+			@Override
+			public Entry<Integer, Integer> next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				Entry<Integer, Integer> entry = new Entry<>(keys[currentIndex], values[currentIndex]);
+				currentIndex++;
+				return entry;
+			}
+		};
+	}
+
+	private void insertAt(int i, int key, int value) {
+		if (keys.length == size) {
+			long start = (counters != null) ? System.nanoTime() : 0;
+			keys = Arrays.copyOf(keys, 2 * size);
+			values = Arrays.copyOf(values, 2 * size);
+			if (counters != null)
+				counters.resized(start);
+		}
+		if (counters != null) {
+			counters.inserts++;
+			counters.insertMoves += size - i;
+		}
+		System.arraycopy(keys, i, keys, i + 1, size - i);
+		System.arraycopy(values, i, values, i + 1, size - i);
+		keys[i] = key;
+		values[i] = value;
+		size++;
+	}
+
+	private void removeAt(int i) {
+		System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+		System.arraycopy(values, i + 1, values, i, size - i - 1);
+		size--;
+	}
+
+	/**
+	 * @return the index of key, or -(insertion point) - 1 if key is not contained.
+	 */
+	private int searchKey(int key) {
+		return Arrays.binarySearch(keys, 0, size, key);
+	}
+}
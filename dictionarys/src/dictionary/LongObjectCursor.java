@@ -0,0 +1,27 @@
+package dictionary;
+
+/**
+ * Cursor over the entries of a dictionary with long keys.
+ * Unlike an Iterator no Entry object is allocated per element.
+ * @param <V> the type of mapped values.
+ */
+public interface LongObjectCursor<V> {
+
+	/**
+	 * Moves the cursor to the next entry.
+	 * @return false if there is no further entry.
+	 */
+	boolean advance();
+
+	/**
+	 * Returns the key of the current entry.
+	 * @return the key of the current entry
+	 */
+	long key();
+
+	/**
+	 * Returns the value of the current entry.
+	 * @return the value of the current entry
+	 */
+	V value();
+}
@@ -0,0 +1,299 @@
+package dictionary;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Hash dictionary from long keys to object values without boxing the keys.
+ * Same Robin Hood layout as RobinHoodHashDictionary, but with a primitive
+ * key array. The primitive methods (put, get, remove, cursor) are the hot
+ * path; the Dictionary methods are adapters that box.
+ * @param <V> the type of mapped values.
+ */
+public class LongObjectHashDictionary<V> implements Dictionary<Long, V> {
+
+	private static final int DEF_CAPACITY = 16;
+	private static final double MAX_LOAD = 0.75;
+
+	private long[] keys;
+	private Object[] values;
+	// Probe distance + 1 of the slot; 0 marks an empty slot
+	private int[] dist;
+	private int mask;
+	private int size;
+	// Event counters for stats(), null while counting is disabled
+	private DictionaryStats.Counters counters;
+
+	public LongObjectHashDictionary() {
+		this(DEF_CAPACITY);
+	}
+
+	/**
+	 * @param capacity expected number of entries
+	 */
+	public LongObjectHashDictionary(int capacity) {
+		allocate(tableSizeFor(capacity));
+	}
+
+	/**
+	 * Associates value with key.
+	 * @param key key with which the specified value is to be associated
+	 * @param value value to be associated with the specified key
+	 * @return the previous value associated with key, or null if there was none.
+	 */
+	public V put(long key, V value) {
+		int i = insertKey(key, value);
+		if (i < 0)
+			return null;
+		@SuppressWarnings("unchecked")
+		V r = (V) values[i];
+		values[i] = value;
+		return r;
+	}
+
+	/**
+	 * @param key the key whose value is to be returned.
+	 * @return the value associated with key, or null if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		int i = indexOf(key);
+		return (i < 0) ? null : (V) values[i];
+	}
+
+	/**
+	 * @param key key to look up
+	 * @return true if key is contained in this dictionary.
+	 */
+	public boolean containsKey(long key) {
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * @param key key whose mapping is to be removed.
+	 * @return the previous value associated with key, or null if there was none.
+	 */
+	public V remove(long key) {
+		int i = indexOf(key);
+		if (i < 0)
+			return null;
+		@SuppressWarnings("unchecked")
+		V r = (V) values[i];
+		removeAt(i);
+		return r;
+	}
+
+	/**
+	 * Returns a cursor over all entries in unspecified order.
+	 * @return a cursor positioned before the first entry
+	 */
+	public LongObjectCursor<V> cursor() {
+		return new LongObjectCursor<V>() {
+			int index = -1;
+
+			@Override
+			public boolean advance() {
+				do {
+					index++;
+				} while (index < dist.length && dist[index] == 0);
+				return index < dist.length;
+			}
+
+			@Override
+			public long key() {
+				return keys[index];
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public V value() {
+				return (V) values[index];
+			}
+		};
+	}
+
+	@Override
+	public V insert(Long key, V value) {
+		return put(key.longValue(), value);
+	}
+
+	@Override
+	public V search(Long key) {
+		return get(key.longValue());
+	}
+
+	@Override
+	public V remove(Long key) {
+		return remove(key.longValue());
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * The histogram counts the slots by probe length (0: empty slot).
+	 */
+	@Override
+	public DictionaryStats stats() {
+		int max = 0;
+		for (int d : dist)
+			max = Math.max(max, d);
+		long[] histogram = new long[max + 1];
+		for (int d : dist)
+			histogram[d]++;
+		return new DictionaryStats(size, (double) size / dist.length, "probe length", histogram, -1, counters);
+	}
+
+	@Override
+	public void setStatsEnabled(boolean enabled) {
+		counters = enabled ? new DictionaryStats.Counters() : null;
+	}
+
+	@Override
+	public Iterator<Entry<Long, V>> iterator() {
+		return new Iterator<Dictionary.Entry<Long, V>>() {
+			LongObjectCursor<V> cursor = cursor();
+			boolean hasNext = cursor.advance();
+
+			@Override
+			public boolean hasNext() {
+				return hasNext;
+			}
+
+			@Override
+			public Entry<Long, V> next() {
+				if (!hasNext)
+					throw new NoSuchElementException();
+				Entry<Long, V> entry = new Entry<>(cursor.key(), cursor.value());
+				hasNext = cursor.advance();
+				return entry;
+			}
+		};
+	}
+
+	/**
+	 * Inserts key with value if key is not contained yet.
+	 * @return the slot of the existing key, or -1 if key was inserted.
+	 */
+	private int insertKey(long key, Object value) {
+		int i = hash(key) & mask;
+		int d = 1;
+		while (dist[i] >= d) {
+			if (dist[i] == d && keys[i] == key)
+				return i;
+			i = (i + 1) & mask;
+			d++;
+		}
+		// The key is new, so only now may the table have to grow
+		if (size + 1 > (int) (keys.length * MAX_LOAD)) {
+			resize(keys.length * 2);
+			return insertKey(key, value);
+		}
+		if (dist[i] != 0) {
+			long k = keys[i];
+			Object v = values[i];
+			int dk = dist[i];
+			keys[i] = key;
+			values[i] = value;
+			dist[i] = d;
+			placeDisplaced(i, k, v, dk);
+		} else {
+			keys[i] = key;
+			values[i] = value;
+			dist[i] = d;
+		}
+		size++;
+		if (counters != null)
+			counters.inserts++;
+		return -1;
+	}
+
+	private int indexOf(long key) {
+		int i = hash(key) & mask;
+		int d = 1;
+		while (dist[i] >= d) {
+			if (dist[i] == d && keys[i] == key)
+				return i;
+			i = (i + 1) & mask;
+			d++;
+		}
+		return -1;
+	}
+
+	private void removeAt(int i) {
+		int next = (i + 1) & mask;
+		while (dist[next] > 1) {
+			keys[i] = keys[next];
+			values[i] = values[next];
+			dist[i] = dist[next] - 1;
+			i = next;
+			next = (next + 1) & mask;
+		}
+		values[i] = null;
+		dist[i] = 0;
+		size--;
+	}
+
+	private void placeDisplaced(int i, long k, Object v, int d) {
+		if (counters != null)
+			counters.insertMoves++;
+		while (true) {
+			i = (i + 1) & mask;
+			d++;
+			if (dist[i] == 0) {
+				keys[i] = k;
+				values[i] = v;
+				dist[i] = d;
+				return;
+			}
+			if (dist[i] < d) {
+				long tk = keys[i];
+				Object tv = values[i];
+				int td = dist[i];
+				keys[i] = k;
+				values[i] = v;
+				dist[i] = d;
+				if (counters != null)
+					counters.insertMoves++;
+				k = tk;
+				v = tv;
+				d = td;
+			}
+		}
+	}
+
+	private void resize(int capacity) {
+		long start = (counters != null) ? System.nanoTime() : 0;
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		int[] oldDist = dist;
+		allocate(capacity);
+		for (int i = 0; i < oldDist.length; i++) {
+			if (oldDist[i] != 0)
+				placeDisplaced((hash(oldKeys[i]) - 1) & mask, oldKeys[i], oldValues[i], 0);
+		}
+		if (counters != null)
+			counters.resized(start);
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new Object[capacity];
+		dist = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private static int tableSizeFor(int capacity) {
+		int n = DEF_CAPACITY;
+		while (n * MAX_LOAD < capacity)
+			n <<= 1;
+		return n;
+	}
+}
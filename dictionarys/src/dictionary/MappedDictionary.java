@@ -0,0 +1,184 @@
+package dictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only dictionary served directly from a memory-mapped snapshot file.
+ * Opening a snapshot maps the file and reads only its header, so startup
+ * time and heap use do not depend on the number of entries; pages are
+ * loaded by the operating system as lookups touch them.
+ * <p>
+ * Snapshot format (all ints big-endian):
+ * <pre>
+ * int magic ("DICT"), int version, int count
+ * int[count] offsets of the records, sorted by key
+ * count records: int keyLength, UTF-8 key, int valueLength, UTF-8 value
+ * </pre>
+ * Keys are sorted by their unsigned UTF-8 bytes, so search can compare
+ * the encoded key with the mapped bytes without decoding.
+ * The file is limited to 2 GB. Lookups are safe from several threads.
+ */
+public class MappedDictionary implements Dictionary<String, String> {
+
+	private static final int MAGIC = 0x44494354;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 12;
+
+	private final MappedByteBuffer buf;
+	private final int size;
+
+	private MappedDictionary(MappedByteBuffer buf) throws IOException {
+		if (buf.limit() < HEADER_SIZE || buf.getInt(0) != MAGIC)
+			throw new IOException("Not a dictionary snapshot");
+		if (buf.getInt(4) != VERSION)
+			throw new IOException("Unsupported snapshot version " + buf.getInt(4));
+		this.buf = buf;
+		this.size = buf.getInt(8);
+	}
+
+	/**
+	 * Maps a snapshot file written by writeSnapshot.
+	 * @param file snapshot file
+	 * @return a read-only dictionary backed by the file
+	 * @throws IOException if the file cannot be mapped or is no snapshot
+	 */
+	public static MappedDictionary open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new MappedDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Writes the entries of dict as a snapshot file.
+	 * @param dict dictionary to be saved
+	 * @param file target file; an existing file is replaced
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void writeSnapshot(Dictionary<String, String> dict, Path file) throws IOException {
+		List<byte[][]> records = new ArrayList<>(dict.size());
+		for (Entry<String, String> e : dict)
+			records.add(new byte[][] { e.getKey().getBytes(StandardCharsets.UTF_8),
+					e.getValue().getBytes(StandardCharsets.UTF_8) });
+		records.sort((x, y) -> Arrays.compareUnsigned(x[0], y[0]));
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(records.size());
+			long offset = HEADER_SIZE + 4L * records.size();
+			for (byte[][] r : records) {
+				if (offset > Integer.MAX_VALUE)
+					throw new IOException("Snapshot exceeds 2 GB");
+				out.writeInt((int) offset);
+				offset += 8 + r[0].length + r[1].length;
+			}
+			for (byte[][] r : records) {
+				out.writeInt(r[0].length);
+				out.write(r[0]);
+				out.writeInt(r[1].length);
+				out.write(r[1]);
+			}
+		}
+	}
+
+	/**
+	 * Not supported: the dictionary is read-only.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public String insert(String key, String value) {
+		throw new UnsupportedOperationException("MappedDictionary is read-only");
+	}
+
+	@Override
+	public String search(String key) {
+		byte[] k = key.getBytes(StandardCharsets.UTF_8);
+		int li = 0;
+		int re = size - 1;
+		while (re >= li) {
+			int m = (li + re) >>> 1;
+			int record = recordOffset(m);
+			int c = compareKey(record, k);
+			if (c < 0)
+				li = m + 1;
+			else if (c > 0)
+				re = m - 1;
+			else
+				return readString(record + 4 + k.length);
+		}
+		return null;
+	}
+
+	/**
+	 * Not supported: the dictionary is read-only.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public String remove(String key) {
+		throw new UnsupportedOperationException("MappedDictionary is read-only");
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public Iterator<Entry<String, String>> iterator() {
+		return new Iterator<Dictionary.Entry<String, String>>() {
+			int currentIndex = 0;
+
+			@Override
+			public boolean hasNext() {
+				return currentIndex < size;
+			}
+
+			@Override
+			public Entry<String, String> next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				int record = recordOffset(currentIndex++);
+				String key = readString(record);
+				String value = readString(record + 4 + buf.getInt(record));
+				return new Entry<String, String>(key, value);
+			}
+		};
+	}
+
+	private int recordOffset(int i) {
+		return buf.getInt(HEADER_SIZE + 4 * i);
+	}
+
+	/**
+	 * Compares the key of the record at pos with key by unsigned bytes.
+	 */
+	private int compareKey(int pos, byte[] key) {
+		int len = buf.getInt(pos);
+		int n = Math.min(len, key.length);
+		for (int i = 0; i < n; i++) {
+			int c = (buf.get(pos + 4 + i) & 0xff) - (key[i] & 0xff);
+			if (c != 0)
+				return c;
+		}
+		return len - key.length;
+	}
+
+	private String readString(int pos) {
+		byte[] b = new byte[buf.getInt(pos)];
+		buf.get(pos + 4, b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+}
@@ -1,10 +1,18 @@
 package dictionary;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
 
 enum Language {
 	GERMAN, ENGLISH
@@ -13,6 +21,8 @@ enum Language {
 public class Measurement {
 
 	private static final int WORD_COUNT = 16000;
+	private static final int LARGE_COUNT = 1_000_000;
+	private static final int LOAD_COUNT = 2_000_000;
 	private static final String SOURCE = "./src/resources/dtengl.txt";
 
 	// private constructor to prevent instantiation of library
@@ -23,7 +33,12 @@ public class Measurement {
 		List<Dictionary<String, String>> dictionaries = new ArrayList<>();
 		dictionaries.add(new SortedArrayDictionary<>());
 		dictionaries.add(new HashDictionary<>(3));
+		dictionaries.add(new BloomFilterDictionary<>(new HashDictionary<>(3)));
+		dictionaries.add(new RobinHoodHashDictionary<>());
+		dictionaries.add(new CuckooHashDictionary<>());
+		dictionaries.add(new ConcurrentHashDictionary<>());
 		dictionaries.add(new BinaryTreeDictionary<>());
+		dictionaries.add(new BTreeDictionary<>());
 		for (Dictionary<String, String> dictionary : dictionaries) {
 			System.out.println("\nActual dictionary: " + (dictionary.getClass().toString().split("dictionary.")[1]));
 			System.out.println("Word count: " + WORD_COUNT);
@@ -31,37 +46,129 @@ public class Measurement {
 			measureInsertTime(dictionary);
 			fillWordlist(wordlist, Language.GERMAN);
 			measureSearchTime(wordlist, dictionary);
-			measureNonFindSearchTime(wordlist, dictionary);
+			// English words are (almost all) not contained as German keys
+			List<String> englishWordlist = new ArrayList<>(WORD_COUNT);
+			fillWordlist(englishWordlist, Language.ENGLISH);
+			measureNonFindSearchTime(englishWordlist, dictionary);
 		}
+
+		// Load once, query often: binary search vs. frozen Eytzinger layout
+		SortedArrayDictionary<String, String> sorted = new SortedArrayDictionary<>();
+		measureInsertTime(sorted);
+		List<String> germanWordlist = new ArrayList<>(WORD_COUNT);
+		fillWordlist(germanWordlist, Language.GERMAN);
+		for (Dictionary<String, String> dictionary : List.of(sorted, sorted.freeze())) {
+			System.out.println("\nActual dictionary: " + (dictionary.getClass().toString().split("dictionary.")[1]));
+			for (int r = 0; r < 10; r++)
+				measureSearchTime(germanWordlist, dictionary);
+		}
+
+		// Read scaling: AVL tree behind one lock vs. lock-free skip list and persistent AVL tree
+		List<Dictionary<String, String>> concurrentDictionaries = new ArrayList<>();
+		concurrentDictionaries.add(new SynchronizedDictionary<>(new BinaryTreeDictionary<String, String>()));
+		concurrentDictionaries.add(new ConcurrentSkipListDictionary<>());
+		concurrentDictionaries.add(new AtomicTreeDictionary<>());
+		List<String> wordlist = new ArrayList<>(WORD_COUNT);
+		fillWordlist(wordlist, Language.GERMAN);
+		for (Dictionary<String, String> dictionary : concurrentDictionaries) {
+			System.out.println("\nActual dictionary: " + (dictionary.getClass().toString().split("dictionary.")[1]));
+			measureInsertTime(dictionary);
+			for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2)
+				measureParallelSearchTime(wordlist, dictionary, threads);
+		}
+
+		// Translating a whole document: one search per word vs. one batch
+		for (Dictionary<String, String> dictionary : List.of(
+				new SynchronizedDictionary<>(new BinaryTreeDictionary<String, String>()),
+				new ConcurrentHashDictionary<String, String>())) {
+			System.out.println("\nActual dictionary: " + (dictionary.getClass().toString().split("dictionary.")[1]));
+			measureInsertTime(dictionary);
+			measureBatchSearchTime(germanWordlist, dictionary);
+		}
+
+		// Bounded cache in front of the dictionary, words looked up Zipf-distributed
+		measureCacheHitRate(germanWordlist, WORD_COUNT / 20);
+
+		// Snapshot after every small batch of updates: full copy vs. HAMT
+		measureSnapshotTime(germanWordlist);
+
+		// Whole-dictionary analytics: sequential vs. parallel stream
+		for (Dictionary<String, String> dictionary : List.of(new HashDictionary<String, String>(3),
+				new SortedArrayDictionary<String, String>(), new BinaryTreeDictionary<String, String>())) {
+			System.out.println("\nActual dictionary: " + (dictionary.getClass().toString().split("dictionary.")[1]));
+			measureInsertTime(dictionary);
+			measureStreamTime(dictionary);
+		}
+
+		measureLoadTime(LOAD_COUNT);
+
+		// Cache behaviour at 10^6 keys: AVL tree vs. B+ tree
+		measureLargeScale(new BinaryTreeDictionary<>(), LARGE_COUNT);
+		measureLargeScale(new BTreeDictionary<>(32), LARGE_COUNT);
+		measureLargeScale(new BTreeDictionary<>(64), LARGE_COUNT);
 	}
 
 	private static void fillWordlist(List<String> wordlist, Language lang) throws Exception {
-		try (BufferedReader reader = new BufferedReader(new FileReader(SOURCE))) {
-			String line;
-			while ((line = reader.readLine()) != null) {
-				if (lang == Language.GERMAN)
-					wordlist.add(line.split(" ")[0]);
-				else
-					wordlist.add(line.split(" ")[1]);
-			}
-			reader.close();
+		for (Dictionary.Entry<String, String> e : WordListLoader.read(Paths.get(SOURCE), Integer.MAX_VALUE)) {
+			if (lang == Language.GERMAN)
+				wordlist.add(e.getKey());
+			else
+				wordlist.add(e.getValue());
 		}
 	}
 
 	private static void measureInsertTime(Dictionary<String, String> dict) throws Exception {
-		try (BufferedReader reader = new BufferedReader(new FileReader(SOURCE))) {
+		long startTime = System.nanoTime();
+		WordListLoader.load(Paths.get(SOURCE), dict, WORD_COUNT);
+		long stopTime = System.nanoTime();
+
+		System.out.println("InsertTime: " + ((stopTime - startTime) / 1_000_000) + " ms");
+	}
+
+	/**
+	 * Compares reading a large word list line by line with split
+	 * and the parallel memory-mapped loader.
+	 */
+	private static void measureLoadTime(int lines) throws Exception {
+		Path file = Files.createTempFile("wordlist", ".txt");
+		List<String> german = new ArrayList<>();
+		List<String> english = new ArrayList<>();
+		fillWordlist(german, Language.GERMAN);
+		fillWordlist(english, Language.ENGLISH);
+		try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+			for (int i = 0; i < lines; i++) {
+				int w = i % german.size();
+				writer.write(german.get(w) + i + " " + english.get(w) + "\n");
+			}
+		}
+		System.out.println("\nLoading " + lines + " word pairs (" + (Files.size(file) >> 20) + " MB)");
+
+		long startTime = System.nanoTime();
+		List<Dictionary.Entry<String, String>> entries = new ArrayList<>();
+		try (BufferedReader reader = Files.newBufferedReader(file)) {
 			String line;
-			int counter = 0;
-			long startTime = System.nanoTime();
-			while ((line = reader.readLine()) != null && counter < WORD_COUNT) {
+			while ((line = reader.readLine()) != null) {
 				String[] words = line.split(" ");
-				dict.insert(words[0], words[1]);
-				counter++;
+				entries.add(new Dictionary.Entry<>(words[0], words[1]));
 			}
-			long stopTime = System.nanoTime();
-			System.out.println("InsertTime: " + ((stopTime - startTime) / 1_000_000) + " ms");
-			reader.close();
 		}
+		long stopTime = System.nanoTime();
+		System.out.println("ReadTime (BufferedReader, split): " + ((stopTime - startTime) / 1_000_000) + " ms");
+		entries = null;
+
+		startTime = System.nanoTime();
+		entries = WordListLoader.read(file, Integer.MAX_VALUE);
+		stopTime = System.nanoTime();
+		System.out.println("ReadTime (WordListLoader): " + ((stopTime - startTime) / 1_000_000) + " ms");
+		entries = null;
+
+		Dictionary<String, String> dict = new ConcurrentHashDictionary<>(2 * lines);
+		startTime = System.nanoTime();
+		WordListLoader.load(file, dict);
+		stopTime = System.nanoTime();
+		System.out.println("LoadTime (WordListLoader into ConcurrentHashDictionary): "
+				+ ((stopTime - startTime) / 1_000_000) + " ms");
+		Files.delete(file);
 	}
 
 	private static void measureSearchTime(List<String> germanWordlist, Dictionary<String, String> dict)
@@ -77,6 +184,143 @@ public class Measurement {
 		System.out.println("FindTime: " + ((stopTime - startTime) / 1_000_000) + " ms");
 	}
 
+	private static void measureParallelSearchTime(List<String> wordlist, Dictionary<String, String> dict,
+			int threadCount) throws Exception {
+		final int rounds = 20;
+		Thread[] threads = new Thread[threadCount];
+		for (int t = 0; t < threadCount; t++) {
+			threads[t] = new Thread(() -> {
+				for (int r = 0; r < rounds; r++)
+					for (String word : wordlist)
+						dict.search(word);
+			});
+		}
+		long startTime = System.nanoTime();
+		for (Thread thread : threads)
+			thread.start();
+		for (Thread thread : threads)
+			thread.join();
+		long stopTime = System.nanoTime();
+		long searches = (long) threadCount * rounds * wordlist.size();
+		System.out.println("ParallelFindTime (" + threadCount + " threads): " + ((stopTime - startTime) / 1_000_000)
+				+ " ms, " + (searches * 1_000_000 / Math.max(1, stopTime - startTime)) + " searches/ms");
+	}
+
+	private static void measureLargeScale(Dictionary<Integer, Integer> dict, int n) {
+		System.out.println("\nActual dictionary: " + (dict.getClass().toString().split("dictionary.")[1]));
+		System.out.println("Key count: " + n);
+		List<Integer> keys = new ArrayList<>(n);
+		for (int i = 0; i < n; i++)
+			keys.add(i);
+		Collections.shuffle(keys, new Random(1));
+
+		long startTime = System.nanoTime();
+		for (Integer key : keys)
+			dict.insert(key, key);
+		long stopTime = System.nanoTime();
+		System.out.println("InsertTime: " + ((stopTime - startTime) / 1_000_000) + " ms");
+
+		Collections.shuffle(keys, new Random(2));
+		long sum = 0;
+		startTime = System.nanoTime();
+		for (Integer key : keys)
+			sum += dict.search(key);
+		stopTime = System.nanoTime();
+		System.out.println("FindTime: " + ((stopTime - startTime) / 1_000_000) + " ms");
+
+		startTime = System.nanoTime();
+		for (Dictionary.Entry<Integer, Integer> e : dict)
+			sum -= e.getValue();
+		stopTime = System.nanoTime();
+		System.out.println("IterationTime: " + ((stopTime - startTime) / 1_000_000) + " ms" + (sum == 0 ? "" : " (mismatch)"));
+	}
+
+	private static void measureBatchSearchTime(List<String> wordlist, Dictionary<String, String> dict) {
+		List<String> document = new ArrayList<>(20 * wordlist.size());
+		for (int r = 0; r < 20; r++)
+			document.addAll(wordlist);
+		Collections.shuffle(document, new Random(1));
+
+		long startTime = System.nanoTime();
+		for (String word : document)
+			dict.search(word);
+		long stopTime = System.nanoTime();
+		System.out.println("DocumentTime (" + document.size() + " words, single): " + ((stopTime - startTime) / 1_000_000) + " ms");
+
+		startTime = System.nanoTime();
+		dict.searchAll(document);
+		stopTime = System.nanoTime();
+		System.out.println("DocumentTime (" + document.size() + " words, batch): " + ((stopTime - startTime) / 1_000_000) + " ms");
+	}
+
+	private static void measureCacheHitRate(List<String> wordlist, int cacheSize) throws Exception {
+		System.out.println("\nActual dictionary: CachingDictionary (" + cacheSize + " entries)");
+		Dictionary<String, String> backing = new HashDictionary<>(3);
+		measureInsertTime(backing);
+		CachingDictionary<String, String> cache = new CachingDictionary<>(backing, cacheSize);
+		// Zipf distribution with exponent 1: word i is looked up with probability ~ 1 / (i + 1)
+		double[] cdf = new double[wordlist.size()];
+		double sum = 0;
+		for (int i = 0; i < cdf.length; i++)
+			cdf[i] = sum += 1.0 / (i + 1);
+		Random random = new Random(1);
+		long startTime = System.nanoTime();
+		for (int r = 0; r < 20 * WORD_COUNT; r++) {
+			int i = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+			cache.search(wordlist.get(Math.min(cdf.length - 1, (i < 0) ? -i - 1 : i)));
+		}
+		long stopTime = System.nanoTime();
+		System.out.println("FindTime: " + ((stopTime - startTime) / 1_000_000) + " ms, hits: " + cache.hitCount()
+				+ ", misses: " + cache.missCount() + ", evictions: " + cache.evictionCount());
+	}
+
+	private static void measureSnapshotTime(List<String> wordlist) throws Exception {
+		final int rounds = 1000;
+		Dictionary<String, String> hash = new HashDictionary<>(3);
+		PersistentHashDictionary.Transient<String, String> hamt = new PersistentHashDictionary.Transient<>();
+		measureInsertTime(hash);
+		measureInsertTime(hamt);
+		for (Dictionary<String, String> dict : List.of(hash, hamt)) {
+			System.out.println("\nActual dictionary: " + (dict.getClass().toString().split("dictionary.")[1]));
+			Dictionary<String, String> snapshot = null;
+			long startTime = System.nanoTime();
+			for (int r = 0; r < rounds; r++) {
+				for (int i = 0; i < 10; i++) {
+					String word = wordlist.get((10 * r + i) % wordlist.size());
+					dict.insert(word, word);
+				}
+				if (dict == hamt) {
+					snapshot = hamt.snapshot();
+				} else {
+					snapshot = new HashDictionary<>(3);
+					snapshot.insertAll(dict);
+				}
+			}
+			long stopTime = System.nanoTime();
+			System.out.println("SnapshotTime (" + rounds + " snapshots of " + snapshot.size() + " entries): "
+					+ ((stopTime - startTime) / 1_000_000) + " ms");
+		}
+	}
+
+	/**
+	 * Counts the translations per initial letter of the German word,
+	 * once with a sequential and once with a parallel stream.
+	 */
+	private static void measureStreamTime(Dictionary<String, String> dict) {
+		final int rounds = 200;
+		for (boolean parallel : new boolean[] { false, true }) {
+			Map<Character, Long> perLetter = null;
+			long startTime = System.nanoTime();
+			for (int r = 0; r < rounds; r++)
+				perLetter = (parallel ? dict.parallelStream() : dict.stream())
+						.collect(Collectors.groupingBy(e -> Character.toUpperCase(e.getKey().charAt(0)),
+								Collectors.counting()));
+			long stopTime = System.nanoTime();
+			System.out.println("StreamTime (" + (parallel ? "parallel" : "sequential") + ", " + rounds + " rounds, "
+					+ perLetter.size() + " letters): " + ((stopTime - startTime) / 1_000_000) + " ms");
+		}
+	}
+
 	private static void measureNonFindSearchTime(List<String> wordlist, Dictionary<String, String> dict)
 			throws Exception {
 		Iterator<String> iterator = wordlist.iterator();
@@ -0,0 +1,27 @@
+package dictionary;
+
+/**
+ * Cursor over the entries of a dictionary with int values.
+ * Unlike an Iterator no Entry object is allocated per element.
+ * @param <K> the type of keys.
+ */
+public interface ObjectIntCursor<K> {
+
+	/**
+	 * Moves the cursor to the next entry.
+	 * @return false if there is no further entry.
+	 */
+	boolean advance();
+
+	/**
+	 * Returns the key of the current entry.
+	 * @return the key of the current entry
+	 */
+	K key();
+
+	/**
+	 * Returns the value of the current entry.
+	 * @return the value of the current entry
+	 */
+	int value();
+}
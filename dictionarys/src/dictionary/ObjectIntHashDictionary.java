@@ -0,0 +1,324 @@
+package dictionary;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Hash dictionary from object keys to int values without boxing the values,
+ * e.g. for word counts. Same Robin Hood layout as RobinHoodHashDictionary,
+ * but with a primitive value array. The primitive methods (put, get,
+ * addTo, removeKey, cursor) are the hot path; the Dictionary methods are
+ * adapters that box.
+ * @param <K> the type of keys maintained by this dictionary.
+ */
+public class ObjectIntHashDictionary<K> implements Dictionary<K, Integer> {
+
+	private static final int DEF_CAPACITY = 16;
+	private static final double MAX_LOAD = 0.75;
+
+	private Object[] keys;
+	private int[] values;
+	// Probe distance + 1 of the slot; 0 marks an empty slot
+	private int[] dist;
+	private int mask;
+	private int size;
+	// Event counters for stats(), null while counting is disabled
+	private DictionaryStats.Counters counters;
+	private final int noValue;
+
+	public ObjectIntHashDictionary() {
+		this(DEF_CAPACITY, 0);
+	}
+
+	/**
+	 * @param capacity expected number of entries
+	 * @param noValue value returned by the primitive methods for missing keys
+	 */
+	public ObjectIntHashDictionary(int capacity, int noValue) {
+		allocate(tableSizeFor(capacity));
+		this.noValue = noValue;
+	}
+
+	/**
+	 * Associates value with key.
+	 * @param key key with which the specified value is to be associated
+	 * @param value value to be associated with the specified key
+	 * @return the previous value associated with key, or noValue if there was none.
+	 */
+	public int put(K key, int value) {
+		int i = insertKey(key, value);
+		if (i < 0)
+			return noValue;
+		int r = values[i];
+		values[i] = value;
+		return r;
+	}
+
+	/**
+	 * Adds increment to the value of key; a missing key starts at 0.
+	 * @param key key whose value is to be incremented
+	 * @param increment amount to add
+	 * @return the new value associated with key.
+	 */
+	public int addTo(K key, int increment) {
+		int i = insertKey(key, increment);
+		if (i < 0)
+			return increment;
+		return values[i] += increment;
+	}
+
+	/**
+	 * @param key the key whose value is to be returned.
+	 * @return the value associated with key, or noValue if there is none.
+	 */
+	public int get(K key) {
+		int i = indexOf(key);
+		return (i < 0) ? noValue : values[i];
+	}
+
+	/**
+	 * @param key key to look up
+	 * @return true if key is contained in this dictionary.
+	 */
+	public boolean containsKey(K key) {
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * @param key key whose mapping is to be removed.
+	 * @return the previous value associated with key, or noValue if there was none.
+	 */
+	public int removeKey(K key) {
+		int i = indexOf(key);
+		if (i < 0)
+			return noValue;
+		int r = values[i];
+		removeAt(i);
+		return r;
+	}
+
+	/**
+	 * Returns a cursor over all entries in unspecified order.
+	 * @return a cursor positioned before the first entry
+	 */
+	public ObjectIntCursor<K> cursor() {
+		return new ObjectIntCursor<K>() {
+			int index = -1;
+
+			@Override
+			public boolean advance() {
+				do {
+					index++;
+				} while (index < dist.length && dist[index] == 0);
+				return index < dist.length;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public K key() {
+				return (K) keys[index];
+			}
+
+			@Override
+			public int value() {
+				return values[index];
+			}
+		};
+	}
+
+	@Override
+	public Integer insert(K key, Integer value) {
+		int i = insertKey(key, value);
+		if (i < 0)
+			return null;
+		int r = values[i];
+		values[i] = value;
+		return r;
+	}
+
+	@Override
+	public Integer search(K key) {
+		int i = indexOf(key);
+		return (i < 0) ? null : values[i];
+	}
+
+	@Override
+	public Integer remove(K key) {
+		int i = indexOf(key);
+		if (i < 0)
+			return null;
+		int r = values[i];
+		removeAt(i);
+		return r;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * The histogram counts the slots by probe length (0: empty slot).
+	 */
+	@Override
+	public DictionaryStats stats() {
+		int max = 0;
+		for (int d : dist)
+			max = Math.max(max, d);
+		long[] histogram = new long[max + 1];
+		for (int d : dist)
+			histogram[d]++;
+		return new DictionaryStats(size, (double) size / dist.length, "probe length", histogram, -1, counters);
+	}
+
+	@Override
+	public void setStatsEnabled(boolean enabled) {
+		counters = enabled ? new DictionaryStats.Counters() : null;
+	}
+
+	@Override
+	public Iterator<Entry<K, Integer>> iterator() {
+		return new Iterator<Dictionary.Entry<K, Integer>>() {
+			ObjectIntCursor<K> cursor = cursor();
+			boolean hasNext = cursor.advance();
+
+			@Override
+			public boolean hasNext() {
+				return hasNext;
+			}
+
+			@Override
+			public Entry<K, Integer> next() {
+				if (!hasNext)
+					throw new NoSuchElementException();
+				Entry<K, Integer> entry = new Entry<>(cursor.key(), cursor.value());
+				hasNext = cursor.advance();
+				return entry;
+			}
+		};
+	}
+
+	/**
+	 * Inserts key with value if key is not contained yet.
+	 * @return the slot of the existing key, or -1 if key was inserted.
+	 */
+	private int insertKey(Object key, int value) {
+		int i = hash(key) & mask;
+		int d = 1;
+		while (dist[i] >= d) {
+			if (dist[i] == d && keys[i].equals(key))
+				return i;
+			i = (i + 1) & mask;
+			d++;
+		}
+		// The key is new, so only now may the table have to grow
+		if (size + 1 > (int) (keys.length * MAX_LOAD)) {
+			resize(keys.length * 2);
+			return insertKey(key, value);
+		}
+		if (dist[i] != 0) {
+			Object k = keys[i];
+			int v = values[i];
+			int dk = dist[i];
+			keys[i] = key;
+			values[i] = value;
+			dist[i] = d;
+			placeDisplaced(i, k, v, dk);
+		} else {
+			keys[i] = key;
+			values[i] = value;
+			dist[i] = d;
+		}
+		size++;
+		if (counters != null)
+			counters.inserts++;
+		return -1;
+	}
+
+	private int indexOf(Object key) {
+		int i = hash(key) & mask;
+		int d = 1;
+		while (dist[i] >= d) {
+			if (dist[i] == d && keys[i].equals(key))
+				return i;
+			i = (i + 1) & mask;
+			d++;
+		}
+		return -1;
+	}
+
+	private void removeAt(int i) {
+		int next = (i + 1) & mask;
+		while (dist[next] > 1) {
+			keys[i] = keys[next];
+			values[i] = values[next];
+			dist[i] = dist[next] - 1;
+			i = next;
+			next = (next + 1) & mask;
+		}
+		keys[i] = null;
+		dist[i] = 0;
+		size--;
+	}
+
+	private void placeDisplaced(int i, Object k, int v, int d) {
+		if (counters != null)
+			counters.insertMoves++;
+		while (true) {
+			i = (i + 1) & mask;
+			d++;
+			if (dist[i] == 0) {
+				keys[i] = k;
+				values[i] = v;
+				dist[i] = d;
+				return;
+			}
+			if (dist[i] < d) {
+				Object tk = keys[i];
+				int tv = values[i];
+				int td = dist[i];
+				keys[i] = k;
+				values[i] = v;
+				dist[i] = d;
+				if (counters != null)
+					counters.insertMoves++;
+				k = tk;
+				v = tv;
+				d = td;
+			}
+		}
+	}
+
+	private void resize(int capacity) {
+		long start = (counters != null) ? System.nanoTime() : 0;
+		Object[] oldKeys = keys;
+		int[] oldValues = values;
+		int[] oldDist = dist;
+		allocate(capacity);
+		for (int i = 0; i < oldDist.length; i++) {
+			if (oldDist[i] != 0)
+				placeDisplaced((hash(oldKeys[i]) - 1) & mask, oldKeys[i], oldValues[i], 0);
+		}
+		if (counters != null)
+			counters.resized(start);
+	}
+
+	private void allocate(int capacity) {
+		keys = new Object[capacity];
+		values = new int[capacity];
+		dist = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int tableSizeFor(int capacity) {
+		int n = DEF_CAPACITY;
+		while (n * MAX_LOAD < capacity)
+			n <<= 1;
+		return n;
+	}
+}
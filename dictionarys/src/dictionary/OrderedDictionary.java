@@ -0,0 +1,69 @@
+package dictionary;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Dictionary that keeps its keys in ascending order and supports
+ * ordered navigation and range scans.
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public interface OrderedDictionary<K extends Comparable<? super K>, V> extends Dictionary<K, V> {
+
+	/**
+	 * Returns the entry with the smallest key.
+	 * @return the entry with the smallest key, or null if this dictionary is empty.
+	 */
+	Entry<K, V> first();
+
+	/**
+	 * Returns the entry with the largest key.
+	 * @return the entry with the largest key, or null if this dictionary is empty.
+	 */
+	Entry<K, V> last();
+
+	/**
+	 * Returns the entry with the largest key less than or equal to key.
+	 * @param key the key to look for
+	 * @return the entry with the largest key &lt;= key, or null if there is none.
+	 */
+	Entry<K, V> floor(K key);
+
+	/**
+	 * Returns the entry with the smallest key greater than or equal to key.
+	 * @param key the key to look for
+	 * @return the entry with the smallest key &gt;= key, or null if there is none.
+	 */
+	Entry<K, V> ceiling(K key);
+
+	/**
+	 * Returns a lazy iterator over the entries with from &lt;= key &lt; to
+	 * in ascending key order. Finding the first entry costs O(log n),
+	 * every further entry O(1) amortized.
+	 * @param from lower bound (inclusive)
+	 * @param to upper bound (exclusive)
+	 * @return an iterator over the entries in the range
+	 */
+	Iterator<Entry<K, V>> range(K from, K to);
+
+	/**
+	 * Like Dictionary.spliterator(), additionally reporting ascending key order.
+	 */
+	@Override
+	default Spliterator<Entry<K, V>> spliterator() {
+		return Spliterators.spliterator(iterator(), size(),
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	/**
+	 * Returns the order of the entries of an OrderedDictionary, for
+	 * spliterators that report SORTED: entries are not Comparable themselves.
+	 * @return a comparator comparing entries by key
+	 */
+	static <K extends Comparable<? super K>, V> Comparator<Entry<K, V>> entryOrder() {
+		return Comparator.comparing(Entry::getKey);
+	}
+}
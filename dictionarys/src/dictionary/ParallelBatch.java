@@ -0,0 +1,95 @@
+package dictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+
+/**
+ * Runs the batch operations of thread-safe dictionaries on the common
+ * ForkJoinPool. The batch is split into ranges of LEAF_SIZE keys, which idle
+ * workers steal. Batches below PARALLEL_THRESHOLD run sequentially, where
+ * forking would cost more than it saves.
+ */
+final class ParallelBatch {
+
+	static final int PARALLEL_THRESHOLD = 1 << 13;
+	private static final int LEAF_SIZE = 1 << 10;
+
+	// private constructor to prevent instantiation of library
+	private ParallelBatch() {
+	}
+
+	static <K, V> List<V> searchAll(Dictionary<K, V> dict, List<? extends K> keys) {
+		List<? extends K> list = randomAccess(keys);
+		@SuppressWarnings("unchecked")
+		V[] values = (V[]) new Object[list.size()];
+		count(list.size(), i -> {
+			values[i] = dict.search(list.get(i));
+			return true;
+		});
+		return Arrays.asList(values);
+	}
+
+	static <K, V> void insertAll(Dictionary<K, V> dict, Map<? extends K, ? extends V> map) {
+		List<Map.Entry<? extends K, ? extends V>> entries = new ArrayList<>(map.entrySet());
+		count(entries.size(), i -> {
+			dict.insert(entries.get(i).getKey(), entries.get(i).getValue());
+			return true;
+		});
+	}
+
+	static <K> int removeAll(Dictionary<K, ?> dict, Collection<? extends K> keys) {
+		List<? extends K> list = randomAccess(keys);
+		return count(list.size(), i -> dict.remove(list.get(i)) != null);
+	}
+
+	/**
+	 * Applies op to 0..n-1 in parallel.
+	 * @return the number of indices for which op returned true.
+	 */
+	private static int count(int n, IntPredicate op) {
+		return ForkJoinPool.commonPool().invoke(new CountTask(0, n, op));
+	}
+
+	private static <K> List<? extends K> randomAccess(Collection<? extends K> keys) {
+		if (keys instanceof List && keys instanceof RandomAccess)
+			return (List<? extends K>) keys;
+		return new ArrayList<>(keys);
+	}
+
+	private static class CountTask extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+		private final int to;
+		private final IntPredicate op;
+
+		CountTask(int from, int to, IntPredicate op) {
+			this.from = from;
+			this.to = to;
+			this.op = op;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (to - from <= LEAF_SIZE) {
+				int n = 0;
+				for (int i = from; i < to; i++)
+					if (op.test(i))
+						n++;
+				return n;
+			}
+			int mid = (from + to) >>> 1;
+			CountTask left = new CountTask(from, mid, op);
+			left.fork();
+			int right = new CountTask(mid, to, op).compute();
+			return right + left.join();
+		}
+	}
+}
@@ -0,0 +1,509 @@
+package dictionary;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable hash dictionary as hash array mapped trie (Bagwell: Ideal Hash
+ * Trees).
+ * <p>
+ * Each level of the trie consumes 5 bits of the hash. A node stores a
+ * 32-bit bitmap of its occupied positions and a compact array with only
+ * these positions, each either a key-value pair or a subnode; the array
+ * index of a position is the number of lower bits set in the bitmap. Keys
+ * with the same hash code end up in a collision node with a linear list.
+ * <p>
+ * with and without copy only the O(log32 n) nodes on the path to the key
+ * and share everything else with the previous version, which stays valid.
+ * A version can be read by any number of threads without synchronization.
+ * <p>
+ * For batch updates, asTransient() returns a mutable Transient view that
+ * modifies nodes it has created itself in place instead of copying them
+ * again; Transient.snapshot() turns the current state into an immutable
+ * version in O(1).
+ * <p>
+ * insert and remove throw UnsupportedOperationException. The iterator
+ * returns copies of the entries in no particular order.
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public final class PersistentHashDictionary<K, V> implements Dictionary<K, V> {
+
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+	private static final Object[] NO_ENTRIES = new Object[0];
+	private static final PersistentHashDictionary<?, ?> EMPTY = new PersistentHashDictionary<>(
+			new BitmapNode(null, 0, NO_ENTRIES), 0);
+
+	private final Node root;
+	private final int size;
+
+	private PersistentHashDictionary(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * @return the empty dictionary
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentHashDictionary<K, V> empty() {
+		return (PersistentHashDictionary<K, V>) EMPTY;
+	}
+
+	/**
+	 * Returns a version of this dictionary in which key is associated with value.
+	 * @param key key with which the specified value is to be associated
+	 * @param value value to be associated with the specified key
+	 * @return the new version, or this if key is already associated with value.
+	 */
+	public PersistentHashDictionary<K, V> with(K key, V value) {
+		Update u = new Update();
+		Node r = root.put(null, 0, hash(key), key, value, u);
+		if (r == root)
+			return this;
+		return new PersistentHashDictionary<>(r, u.found ? size : size + 1);
+	}
+
+	/**
+	 * Returns a version of this dictionary without key.
+	 * @param key key whose mapping is to be removed
+	 * @return the new version, or this if key is not contained.
+	 */
+	public PersistentHashDictionary<K, V> without(K key) {
+		Update u = new Update();
+		Node r = root.remove(null, 0, hash(key), key, u);
+		if (!u.found)
+			return this;
+		return new PersistentHashDictionary<>(orEmpty(r), size - 1);
+	}
+
+	/**
+	 * Returns a mutable dictionary starting with the entries of this version,
+	 * which itself remains unchanged.
+	 * @return a new transient dictionary
+	 */
+	public Transient<K, V> asTransient() {
+		return new Transient<>(root, size);
+	}
+
+	/**
+	 * Not supported: the dictionary is immutable, use with or asTransient.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public V insert(K key, V value) {
+		throw new UnsupportedOperationException("PersistentHashDictionary is immutable, use with");
+	}
+
+	/**
+	 * Not supported: the dictionary is immutable, use without or asTransient.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public V remove(K key) {
+		throw new UnsupportedOperationException("PersistentHashDictionary is immutable, use without");
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V search(K key) {
+		return (V) root.find(0, hash(key), key);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> iterator() {
+		return new NodeIterator<>(root);
+	}
+
+	/**
+	 * Mutable dictionary on the nodes of a PersistentHashDictionary.
+	 * <p>
+	 * Nodes are tagged with the edit token of the transient that created
+	 * them. Nodes carrying the current token are modified in place; all other
+	 * nodes may be shared with immutable versions and are copied on the first
+	 * write, as in PersistentHashDictionary.with. snapshot() retires the token,
+	 * so from then on every node counts as shared.
+	 * <p>
+	 * Not thread-safe. The iterator works on a snapshot.
+	 * @param <K> the type of keys maintained by this dictionary.
+	 * @param <V> the type of mapped values.
+	 */
+	public static final class Transient<K, V> implements Dictionary<K, V> {
+
+		private Object edit = new Object();
+		private Node root;
+		private int size;
+
+		public Transient() {
+			this(EMPTY.root, 0);
+		}
+
+		private Transient(Node root, int size) {
+			this.root = root;
+			this.size = size;
+		}
+
+		/**
+		 * Returns the current entries as an immutable dictionary in O(1).
+		 * Later changes of this transient do not affect it.
+		 * @return an immutable snapshot
+		 */
+		public PersistentHashDictionary<K, V> snapshot() {
+			edit = new Object();
+			return new PersistentHashDictionary<>(root, size);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V insert(K key, V value) {
+			Update u = new Update();
+			root = root.put(edit, 0, hash(key), key, value, u);
+			if (!u.found)
+				size++;
+			return (V) u.oldValue;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V search(K key) {
+			return (V) root.find(0, hash(key), key);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V remove(K key) {
+			Update u = new Update();
+			root = orEmpty(root.remove(edit, 0, hash(key), key, u));
+			if (u.found)
+				size--;
+			return (V) u.oldValue;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			return snapshot().iterator();
+		}
+	}
+
+	private static Node orEmpty(Node node) {
+		return (node == null) ? EMPTY.root : node;
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int bitFor(int hash, int shift) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	/**
+	 * Node of the trie. array holds key-value pairs at even and odd
+	 * positions; in a BitmapNode a null key means that the value is a subnode.
+	 */
+	private abstract static class Node {
+		// Edit token of the transient that may modify this node in place, null if none
+		final Object edit;
+		Object[] array;
+
+		Node(Object edit, Object[] array) {
+			this.edit = edit;
+			this.array = array;
+		}
+
+		/**
+		 * Returns the value of key, or null.
+		 */
+		abstract Object find(int shift, int hash, Object key);
+
+		/**
+		 * Returns the node with key associated with value: this if nothing
+		 * changed or if it could be modified in place, otherwise a copy.
+		 */
+		abstract Node put(Object edit, int shift, int hash, Object key, Object value, Update u);
+
+		/**
+		 * Returns the node without key, or null if it becomes empty.
+		 */
+		abstract Node remove(Object edit, int shift, int hash, Object key, Update u);
+
+		boolean isEditable(Object edit) {
+			return edit != null && edit == this.edit;
+		}
+	}
+
+	private static final class BitmapNode extends Node {
+		int bitmap;
+
+		BitmapNode(Object edit, int bitmap, Object[] array) {
+			super(edit, array);
+			this.bitmap = bitmap;
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			int bit = bitFor(hash, shift);
+			if ((bitmap & bit) == 0)
+				return null;
+			int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+			Object k = array[i];
+			if (k == null)
+				return ((Node) array[i + 1]).find(shift + BITS, hash, key);
+			return key.equals(k) ? array[i + 1] : null;
+		}
+
+		@Override
+		Node put(Object edit, int shift, int hash, Object key, Object value, Update u) {
+			int bit = bitFor(hash, shift);
+			int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+			if ((bitmap & bit) == 0) {
+				Object[] a = new Object[array.length + 2];
+				System.arraycopy(array, 0, a, 0, i);
+				a[i] = key;
+				a[i + 1] = value;
+				System.arraycopy(array, i, a, i + 2, array.length - i);
+				return withArray(edit, bitmap | bit, a);
+			}
+			Object k = array[i];
+			Object v = array[i + 1];
+			if (k == null) {
+				Node sub = ((Node) v).put(edit, shift + BITS, hash, key, value, u);
+				return (sub == v) ? this : withValue(edit, i + 1, sub);
+			}
+			if (key.equals(k)) {
+				u.found = true;
+				u.oldValue = v;
+				return (v == value) ? this : withValue(edit, i + 1, value);
+			}
+			// Different key at the same position: both move one level down
+			Node sub = pair(edit, shift + BITS, hash(k), k, v, hash, key, value);
+			Node n = withValue(edit, i + 1, sub);
+			n.array[i] = null;
+			return n;
+		}
+
+		@Override
+		Node remove(Object edit, int shift, int hash, Object key, Update u) {
+			int bit = bitFor(hash, shift);
+			if ((bitmap & bit) == 0)
+				return this;
+			int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+			Object k = array[i];
+			Object v = array[i + 1];
+			if (k == null) {
+				Node sub = ((Node) v).remove(edit, shift + BITS, hash, key, u);
+				if (sub == v)
+					return this;
+				if (sub == null)
+					return without(edit, bit, i);
+				if (sub instanceof BitmapNode && sub.array.length == 2 && sub.array[0] != null) {
+					// A single remaining pair moves up into this node
+					Node n = withValue(edit, i + 1, sub.array[1]);
+					n.array[i] = sub.array[0];
+					return n;
+				}
+				return withValue(edit, i + 1, sub);
+			}
+			if (!key.equals(k))
+				return this;
+			u.found = true;
+			u.oldValue = v;
+			return without(edit, bit, i);
+		}
+
+		private Node without(Object edit, int bit, int i) {
+			if (bitmap == bit)
+				return null;
+			Object[] a = new Object[array.length - 2];
+			System.arraycopy(array, 0, a, 0, i);
+			System.arraycopy(array, i + 2, a, i, array.length - i - 2);
+			return withArray(edit, bitmap ^ bit, a);
+		}
+
+		private Node withValue(Object edit, int i, Object value) {
+			if (isEditable(edit)) {
+				array[i] = value;
+				return this;
+			}
+			Object[] a = array.clone();
+			a[i] = value;
+			return new BitmapNode(edit, bitmap, a);
+		}
+
+		private Node withArray(Object edit, int bitmap, Object[] a) {
+			if (isEditable(edit)) {
+				this.bitmap = bitmap;
+				this.array = a;
+				return this;
+			}
+			return new BitmapNode(edit, bitmap, a);
+		}
+
+		/**
+		 * Creates the subtree holding two keys that share the position at
+		 * the level above: a collision node for equal hashes, otherwise
+		 * bitmap nodes down to the first level where the hashes differ.
+		 */
+		private static Node pair(Object edit, int shift, int h1, Object k1, Object v1, int h2, Object k2,
+				Object v2) {
+			if (h1 == h2)
+				return new CollisionNode(edit, h1, new Object[] { k1, v1, k2, v2 });
+			int b1 = bitFor(h1, shift);
+			int b2 = bitFor(h2, shift);
+			if (b1 == b2)
+				return new BitmapNode(edit, b1, new Object[] { null, pair(edit, shift + BITS, h1, k1, v1, h2, k2, v2) });
+			// Array order is bit order; bit 31 is negative as int
+			Object[] a = (Integer.compareUnsigned(b1, b2) < 0) ? new Object[] { k1, v1, k2, v2 }
+					: new Object[] { k2, v2, k1, v1 };
+			return new BitmapNode(edit, b1 | b2, a);
+		}
+	}
+
+	private static final class CollisionNode extends Node {
+		final int hash;
+
+		CollisionNode(Object edit, int hash, Object[] array) {
+			super(edit, array);
+			this.hash = hash;
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			int i = indexOf(key);
+			return (i < 0) ? null : array[i + 1];
+		}
+
+		@Override
+		Node put(Object edit, int shift, int hash, Object key, Object value, Update u) {
+			if (hash != this.hash) {
+				// Another hash below this position: nest this node into a bitmap node
+				Node n = new BitmapNode(edit, bitFor(this.hash, shift), new Object[] { null, this });
+				return n.put(edit, shift, hash, key, value, u);
+			}
+			int i = indexOf(key);
+			if (i >= 0) {
+				u.found = true;
+				u.oldValue = array[i + 1];
+				if (array[i + 1] == value)
+					return this;
+				Object[] a = isEditable(edit) ? array : array.clone();
+				a[i + 1] = value;
+				return isEditable(edit) ? this : new CollisionNode(edit, hash, a);
+			}
+			Object[] a = Arrays.copyOf(array, array.length + 2);
+			a[array.length] = key;
+			a[array.length + 1] = value;
+			if (isEditable(edit)) {
+				array = a;
+				return this;
+			}
+			return new CollisionNode(edit, hash, a);
+		}
+
+		@Override
+		Node remove(Object edit, int shift, int hash, Object key, Update u) {
+			int i = indexOf(key);
+			if (i < 0)
+				return this;
+			u.found = true;
+			u.oldValue = array[i + 1];
+			if (array.length == 4) {
+				// The remaining pair becomes an ordinary entry, which the parent pulls up
+				int j = 2 - i;
+				return new BitmapNode(edit, bitFor(hash, shift), new Object[] { array[j], array[j + 1] });
+			}
+			Object[] a = new Object[array.length - 2];
+			System.arraycopy(array, 0, a, 0, i);
+			System.arraycopy(array, i + 2, a, i, array.length - i - 2);
+			if (isEditable(edit)) {
+				array = a;
+				return this;
+			}
+			return new CollisionNode(edit, hash, a);
+		}
+
+		private int indexOf(Object key) {
+			for (int i = 0; i < array.length; i += 2)
+				if (key.equals(array[i]))
+					return i;
+			return -1;
+		}
+	}
+
+	/**
+	 * Depth-first iterator with an explicit stack of nodes and positions;
+	 * the trie has at most 8 levels.
+	 */
+	private static final class NodeIterator<K, V> implements Iterator<Entry<K, V>> {
+		private final Node[] nodes = new Node[8];
+		private final int[] positions = new int[8];
+		private int top;
+		private Object nextKey;
+		private Object nextValue;
+
+		NodeIterator(Node root) {
+			nodes[0] = root;
+			advance();
+		}
+
+		/**
+		 * Moves to the next key-value pair, or sets nextKey to null at the end.
+		 */
+		private void advance() {
+			nextKey = null;
+			while (top >= 0) {
+				Node n = nodes[top];
+				int i = positions[top];
+				if (i == n.array.length) {
+					top--;
+					continue;
+				}
+				positions[top] = i + 2;
+				if (n.array[i] != null) {
+					nextKey = n.array[i];
+					nextValue = n.array[i + 1];
+					return;
+				}
+				top++;
+				nodes[top] = (Node) n.array[i + 1];
+				positions[top] = 0;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextKey != null;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Entry<K, V> next() {
+			if (nextKey == null)
+				throw new NoSuchElementException();
+			Entry<K, V> entry = new Entry<K, V>((K) nextKey, (V) nextValue);
+			advance();
+			return entry;
+		}
+	}
+
+	/**
+	 * Result of put and remove: whether the key was contained and its previous value.
+	 */
+	private static final class Update {
+		boolean found;
+		Object oldValue;
+	}
+}
@@ -0,0 +1,327 @@
+package dictionary;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable AVL tree. with and without return a new version of the
+ * dictionary and leave this one unchanged; the new version shares all
+ * subtrees off the search path with the old one (path copying), so an
+ * update allocates O(log n) nodes, and old versions stay valid for as long
+ * as they are referenced.
+ * <p>
+ * Since nothing is ever modified, a version can be read by any number of
+ * threads without synchronization. AtomicTreeDictionary builds a mutable,
+ * thread-safe dictionary with O(1) snapshots on top of it.
+ * <p>
+ * insert and remove throw UnsupportedOperationException. The iterator
+ * returns copies of the entries in ascending key order; setValue on them
+ * does not change the dictionary.
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public final class PersistentTreeDictionary<K extends Comparable<? super K>, V> implements OrderedDictionary<K, V> {
+
+	private static final PersistentTreeDictionary<?, ?> EMPTY = new PersistentTreeDictionary<>(null, 0);
+
+	private final Node<K, V> root;
+	private final int size;
+
+	private PersistentTreeDictionary(Node<K, V> root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * @return the empty dictionary
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K extends Comparable<? super K>, V> PersistentTreeDictionary<K, V> empty() {
+		return (PersistentTreeDictionary<K, V>) EMPTY;
+	}
+
+	/**
+	 * Returns a version of this dictionary in which key is associated with value.
+	 * @param key key with which the specified value is to be associated
+	 * @param value value to be associated with the specified key
+	 * @return the new version, or this if key is already associated with value.
+	 */
+	public PersistentTreeDictionary<K, V> with(K key, V value) {
+		return with(key, value, new Update<V>());
+	}
+
+	/**
+	 * Returns a version of this dictionary without key.
+	 * @param key key whose mapping is to be removed
+	 * @return the new version, or this if key is not contained.
+	 */
+	public PersistentTreeDictionary<K, V> without(K key) {
+		return without(key, new Update<V>());
+	}
+
+	/**
+	 * Like with(key, value), additionally reporting the previous value in u.
+	 */
+	PersistentTreeDictionary<K, V> with(K key, V value, Update<V> u) {
+		Node<K, V> r = insertR(key, value, root, u);
+		if (r == root)
+			return this;
+		return new PersistentTreeDictionary<>(r, u.found ? size : size + 1);
+	}
+
+	/**
+	 * Like without(key), additionally reporting the removed value in u.
+	 */
+	PersistentTreeDictionary<K, V> without(K key, Update<V> u) {
+		Node<K, V> r = removeR(key, root, u);
+		if (!u.found)
+			return this;
+		return new PersistentTreeDictionary<>(r, size - 1);
+	}
+
+	/**
+	 * Not supported: the dictionary is immutable, use with.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public V insert(K key, V value) {
+		throw new UnsupportedOperationException("PersistentTreeDictionary is immutable, use with");
+	}
+
+	/**
+	 * Not supported: the dictionary is immutable, use without.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public V remove(K key) {
+		throw new UnsupportedOperationException("PersistentTreeDictionary is immutable, use without");
+	}
+
+	@Override
+	public V search(K key) {
+		Node<K, V> p = root;
+		while (p != null) {
+			int c = key.compareTo(p.key);
+			if (c == 0)
+				return p.value;
+			p = (c < 0) ? p.left : p.right;
+		}
+		return null;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> iterator() {
+		return new NodeIterator<K, V>(root, null, null);
+	}
+
+	@Override
+	public Entry<K, V> first() {
+		if (root == null)
+			return null;
+		Node<K, V> p = root;
+		while (p.left != null)
+			p = p.left;
+		return new Entry<K, V>(p.key, p.value);
+	}
+
+	@Override
+	public Entry<K, V> last() {
+		if (root == null)
+			return null;
+		Node<K, V> p = root;
+		while (p.right != null)
+			p = p.right;
+		return new Entry<K, V>(p.key, p.value);
+	}
+
+	@Override
+	public Entry<K, V> floor(K key) {
+		Node<K, V> p = root;
+		Node<K, V> best = null;
+		while (p != null) {
+			int c = key.compareTo(p.key);
+			if (c == 0)
+				return new Entry<K, V>(p.key, p.value);
+			if (c < 0) {
+				p = p.left;
+			} else {
+				best = p;
+				p = p.right;
+			}
+		}
+		return (best == null) ? null : new Entry<K, V>(best.key, best.value);
+	}
+
+	@Override
+	public Entry<K, V> ceiling(K key) {
+		Node<K, V> p = root;
+		Node<K, V> best = null;
+		while (p != null) {
+			int c = key.compareTo(p.key);
+			if (c == 0)
+				return new Entry<K, V>(p.key, p.value);
+			if (c < 0) {
+				best = p;
+				p = p.left;
+			} else {
+				p = p.right;
+			}
+		}
+		return (best == null) ? null : new Entry<K, V>(best.key, best.value);
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> range(K from, K to) {
+		return new NodeIterator<K, V>(root, from, to);
+	}
+
+	private static <K extends Comparable<? super K>, V> Node<K, V> insertR(K key, V value, Node<K, V> p,
+			Update<V> u) {
+		if (p == null)
+			return new Node<K, V>(key, value, null, null);
+		int c = key.compareTo(p.key);
+		if (c < 0) {
+			Node<K, V> left = insertR(key, value, p.left, u);
+			return (left == p.left) ? p : balance(p.key, p.value, left, p.right);
+		} else if (c > 0) {
+			Node<K, V> right = insertR(key, value, p.right, u);
+			return (right == p.right) ? p : balance(p.key, p.value, p.left, right);
+		}
+		// Schlssel bereits vorhanden: nur der Knoten selbst wird kopiert
+		u.found = true;
+		u.oldValue = p.value;
+		return (p.value == value) ? p : new Node<K, V>(p.key, value, p.left, p.right);
+	}
+
+	private static <K extends Comparable<? super K>, V> Node<K, V> removeR(K key, Node<K, V> p, Update<V> u) {
+		if (p == null)
+			return null;
+		int c = key.compareTo(p.key);
+		if (c < 0) {
+			Node<K, V> left = removeR(key, p.left, u);
+			return (left == p.left) ? p : balance(p.key, p.value, left, p.right);
+		} else if (c > 0) {
+			Node<K, V> right = removeR(key, p.right, u);
+			return (right == p.right) ? p : balance(p.key, p.value, p.left, right);
+		}
+		u.found = true;
+		u.oldValue = p.value;
+		if (p.left == null)
+			return p.right;
+		if (p.right == null)
+			return p.left;
+		// Zwei Kinder: p wird durch das kleinste Element des rechten Teilbaums ersetzt
+		Node<K, V> min = p.right;
+		while (min.left != null)
+			min = min.left;
+		return balance(min.key, min.value, p.left, removeMinR(p.right));
+	}
+
+	private static <K extends Comparable<? super K>, V> Node<K, V> removeMinR(Node<K, V> p) {
+		if (p.left == null)
+			return p.right;
+		return balance(p.key, p.value, removeMinR(p.left), p.right);
+	}
+
+	/**
+	 * Creates the node (key, value, left, right), rotating if the heights
+	 * of left and right differ by 2. Rotations create new nodes instead of
+	 * relinking the existing ones, which may be shared.
+	 */
+	private static <K extends Comparable<? super K>, V> Node<K, V> balance(K key, V value, Node<K, V> left,
+			Node<K, V> right) {
+		int hl = height(left);
+		int hr = height(right);
+		if (hl > hr + 1) {
+			if (height(left.left) >= height(left.right))
+				return new Node<K, V>(left.key, left.value, left.left, new Node<K, V>(key, value, left.right, right));
+			Node<K, V> lr = left.right;
+			return new Node<K, V>(lr.key, lr.value, new Node<K, V>(left.key, left.value, left.left, lr.left),
+					new Node<K, V>(key, value, lr.right, right));
+		}
+		if (hr > hl + 1) {
+			if (height(right.right) >= height(right.left))
+				return new Node<K, V>(right.key, right.value, new Node<K, V>(key, value, left, right.left), right.right);
+			Node<K, V> rl = right.left;
+			return new Node<K, V>(rl.key, rl.value, new Node<K, V>(key, value, left, rl.left),
+					new Node<K, V>(right.key, right.value, rl.right, right.right));
+		}
+		return new Node<K, V>(key, value, left, right);
+	}
+
+	private static int height(Node<?, ?> p) {
+		return (p == null) ? 0 : p.height;
+	}
+
+	private static final class Node<K, V> {
+		final K key;
+		final V value;
+		final Node<K, V> left;
+		final Node<K, V> right;
+		// Leaves have height 1
+		final int height;
+
+		Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+			this.key = key;
+			this.value = value;
+			this.left = left;
+			this.right = right;
+			this.height = Math.max(height(left), height(right)) + 1;
+		}
+	}
+
+	/**
+	 * In-order iterator with an explicit stack of the nodes whose left
+	 * subtree is being visited. Without parent pointers the stack replaces
+	 * the walk upwards; its depth is bounded by the height of the tree.
+	 * from == null means no lower bound, to == null no upper bound.
+	 */
+	private static final class NodeIterator<K extends Comparable<? super K>, V> implements Iterator<Entry<K, V>> {
+		private final Object[] stack;
+		private int top;
+		private final K to;
+
+		NodeIterator(Node<K, V> root, K from, K to) {
+			this.stack = new Object[height(root)];
+			this.to = to;
+			for (Node<K, V> p = root; p != null;) {
+				if (from == null || from.compareTo(p.key) <= 0) {
+					stack[top++] = p;
+					p = p.left;
+				} else {
+					p = p.right;
+				}
+			}
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public boolean hasNext() {
+			return top > 0 && (to == null || ((Node<K, V>) stack[top - 1]).key.compareTo(to) < 0);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Entry<K, V> next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Node<K, V> p = (Node<K, V>) stack[--top];
+			for (Node<K, V> q = p.right; q != null; q = q.left)
+				stack[top++] = q;
+			return new Entry<K, V>(p.key, p.value);
+		}
+	}
+
+	/**
+	 * Result of with and without: whether the key was contained and its previous value.
+	 */
+	static final class Update<V> {
+		boolean found;
+		V oldValue;
+	}
+}
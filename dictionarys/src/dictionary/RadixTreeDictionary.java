@@ -0,0 +1,298 @@
+package dictionary;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Compressed radix trie (PATRICIA trie) for String keys.
+ * Every edge is labelled with a non-empty string, so common prefixes are
+ * stored only once and chains of single-child nodes are collapsed.
+ * search, insert and remove cost O(|key|) character comparisons.
+ * The iterators return the entries in ascending key order.
+ * @param <V> the type of mapped values.
+ */
+public class RadixTreeDictionary<V> implements Dictionary<String, V> {
+
+	private final Node<V> root = new Node<V>("");
+	private int size;
+	// Event counters for stats(), null while counting is disabled
+	private DictionaryStats.Counters counters;
+
+	@Override
+	public V insert(String key, V value) {
+		Node<V> p = root;
+		int i = 0;
+		while (i < key.length()) {
+			int c = p.indexOf(key.charAt(i));
+			if (c < 0) {
+				Node<V> leaf = new Node<V>(key.substring(i));
+				leaf.setEntry(key, value);
+				p.addChild(-c - 1, leaf);
+				size++;
+				if (counters != null)
+					counters.inserts++;
+				return null;
+			}
+			Node<V> child = p.children[c];
+			int l = commonPrefixLength(child.label, key, i);
+			if (l < child.label.length()) {
+				// Split the edge after the common prefix
+				Node<V> mid = new Node<V>(child.label.substring(0, l));
+				child.label = child.label.substring(l);
+				mid.addChild(0, child);
+				p.children[c] = mid;
+			}
+			p = p.children[c];
+			i += l;
+		}
+		V r = p.value;
+		p.setEntry(key, value);
+		if (r == null) {
+			size++;
+			if (counters != null)
+				counters.inserts++;
+		}
+		return r;
+	}
+
+	@Override
+	public V search(String key) {
+		Node<V> p = root;
+		int i = 0;
+		while (i < key.length()) {
+			int c = p.indexOf(key.charAt(i));
+			if (c < 0)
+				return null;
+			p = p.children[c];
+			if (!key.startsWith(p.label, i))
+				return null;
+			i += p.label.length();
+		}
+		return p.value;
+	}
+
+	@Override
+	public V remove(String key) {
+		Node<V> parent = null;
+		Node<V> p = root;
+		int i = 0;
+		while (i < key.length()) {
+			int c = p.indexOf(key.charAt(i));
+			if (c < 0)
+				return null;
+			parent = p;
+			p = p.children[c];
+			if (!key.startsWith(p.label, i))
+				return null;
+			i += p.label.length();
+		}
+		V r = p.value;
+		if (r == null)
+			return null;
+		p.setEntry(null, null);
+		size--;
+		if (p != root) {
+			if (p.childCount == 0) {
+				parent.removeChild(parent.indexOf(p.label.charAt(0)));
+				if (parent != root && parent.value == null && parent.childCount == 1)
+					parent.mergeWithChild();
+			} else if (p.childCount == 1) {
+				p.mergeWithChild();
+			}
+		}
+		return r;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * The histogram counts the entries by the depth of their node (number
+	 * of edges from the root); the height counts the levels of nodes.
+	 */
+	@Override
+	public DictionaryStats stats() {
+		long[] histogram = new long[1];
+		int height = 0;
+		Deque<Node<V>> stack = new ArrayDeque<>();
+		Deque<Integer> depths = new ArrayDeque<>();
+		stack.push(root);
+		depths.push(0);
+		while (!stack.isEmpty()) {
+			Node<V> p = stack.pop();
+			int d = depths.pop();
+			height = Math.max(height, d + 1);
+			if (p.value != null) {
+				if (d >= histogram.length)
+					histogram = Arrays.copyOf(histogram, d + 1);
+				histogram[d]++;
+			}
+			for (int c = 0; c < p.childCount; c++) {
+				stack.push(p.children[c]);
+				depths.push(d + 1);
+			}
+		}
+		return new DictionaryStats(size, Double.NaN, "depth", histogram, height, counters);
+	}
+
+	@Override
+	public void setStatsEnabled(boolean enabled) {
+		counters = enabled ? new DictionaryStats.Counters() : null;
+	}
+
+	@Override
+	public Iterator<Entry<String, V>> iterator() {
+		return new PrefixIterator(root);
+	}
+
+	/**
+	 * Returns a lazy iterator over all entries whose key starts with prefix,
+	 * in ascending key order. Only the subtree below prefix is visited, and
+	 * only as far as the iteration proceeds, so taking the first k
+	 * completions costs O(|prefix| + k * depth).
+	 * @param prefix prefix of the keys to be returned
+	 * @return an iterator over the completions of prefix
+	 */
+	public Iterator<Entry<String, V>> prefixIterator(String prefix) {
+		Node<V> p = root;
+		int i = 0;
+		while (i < prefix.length()) {
+			int c = p.indexOf(prefix.charAt(i));
+			if (c < 0)
+				return Collections.emptyIterator();
+			p = p.children[c];
+			int l = commonPrefixLength(p.label, prefix, i);
+			if (i + l == prefix.length())
+				break;
+			if (l < p.label.length())
+				return Collections.emptyIterator();
+			i += l;
+		}
+		return new PrefixIterator(p);
+	}
+
+	/**
+	 * Returns the length of the common prefix of label and key.substring(from).
+	 */
+	private static int commonPrefixLength(String label, String key, int from) {
+		int n = Math.min(label.length(), key.length() - from);
+		int l = 0;
+		while (l < n && label.charAt(l) == key.charAt(from + l))
+			l++;
+		return l;
+	}
+
+	/**
+	 * Pre-order traversal of a subtree; children are sorted by their first
+	 * character, so entries come out in ascending key order.
+	 */
+	private class PrefixIterator implements Iterator<Entry<String, V>> {
+		private final Deque<Node<V>> stack = new ArrayDeque<>();
+		private Node<V> next;
+
+		PrefixIterator(Node<V> start) {
+			stack.push(start);
+			next = advance();
+		}
+
+		private Node<V> advance() {
+			while (!stack.isEmpty()) {
+				Node<V> p = stack.pop();
+				for (int c = p.childCount - 1; c >= 0; c--)
+					stack.push(p.children[c]);
+				if (p.value != null)
+					return p;
+			}
+			return null;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Entry<String, V> next() {
+			if (next == null)
+				throw new NoSuchElementException();
+			Entry<String, V> entry = new Entry<String, V>(next.key, next.value);
+			next = advance();
+			return entry;
+		}
+	}
+
+	private static class Node<V> {
+		@SuppressWarnings("rawtypes")
+		private static final Node[] NO_CHILDREN = new Node[0];
+
+		// Edge label from the parent; empty only for the root
+		String label;
+		// Complete key and value if this node holds an entry, otherwise null
+		String key;
+		V value;
+		// Children sorted by the first character of their label
+		@SuppressWarnings("unchecked")
+		Node<V>[] children = NO_CHILDREN;
+		int childCount;
+
+		Node(String label) {
+			this.label = label;
+		}
+
+		void setEntry(String key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		/**
+		 * Binary search for the child whose label starts with ch.
+		 * @return the index of the child, or -(insertion point) - 1.
+		 */
+		int indexOf(char ch) {
+			int li = 0;
+			int re = childCount - 1;
+			while (li <= re) {
+				int m = (li + re) >>> 1;
+				char mc = children[m].label.charAt(0);
+				if (mc < ch)
+					li = m + 1;
+				else if (mc > ch)
+					re = m - 1;
+				else
+					return m;
+			}
+			return -li - 1;
+		}
+
+		void addChild(int i, Node<V> child) {
+			if (childCount == children.length)
+				children = Arrays.copyOf(children, Math.max(2, 2 * childCount));
+			System.arraycopy(children, i, children, i + 1, childCount - i);
+			children[i] = child;
+			childCount++;
+		}
+
+		void removeChild(int i) {
+			System.arraycopy(children, i + 1, children, i, childCount - i - 1);
+			children[--childCount] = null;
+		}
+
+		/**
+		 * Collapses this entry-less node with its only child.
+		 */
+		void mergeWithChild() {
+			Node<V> child = children[0];
+			label = label + child.label;
+			key = child.key;
+			value = child.value;
+			children = child.children;
+			childCount = child.childCount;
+		}
+	}
+}
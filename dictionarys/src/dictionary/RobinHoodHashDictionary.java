@@ -0,0 +1,234 @@
+package dictionary;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Open-addressing hash dictionary.
+ * Keys and values are kept in parallel flat arrays; collisions are resolved
+ * by Robin Hood linear probing and removal uses backward-shift deletion,
+ * so no tombstones are needed.
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public class RobinHoodHashDictionary<K, V> implements Dictionary<K, V> {
+
+	private static final int DEF_CAPACITY = 16;
+	private static final double MAX_LOAD = 0.75;
+
+	private Object[] keys;
+	private Object[] values;
+	// Probe distance + 1 of the slot; 0 marks an empty slot
+	private int[] dist;
+	private int mask;
+	private int size;
+	// Event counters for stats(), null while counting is disabled
+	private DictionaryStats.Counters counters;
+
+	public RobinHoodHashDictionary() {
+		this(DEF_CAPACITY);
+	}
+
+	public RobinHoodHashDictionary(int capacity) {
+		allocate(tableSizeFor(capacity));
+	}
+
+	@Override
+	public V insert(K key, V value) {
+		int i = hash(key) & mask;
+		int d = 1;
+		// Entries at least as far from home as the key may still be the key itself
+		while (dist[i] >= d) {
+			if (dist[i] == d && keys[i].equals(key)) {
+				@SuppressWarnings("unchecked")
+				V r = (V) values[i];
+				values[i] = value;
+				return r;
+			}
+			i = (i + 1) & mask;
+			d++;
+		}
+		// The key is new, so only now may the table have to grow
+		if (size + 1 > (int) (keys.length * MAX_LOAD)) {
+			resize(keys.length * 2);
+			return insert(key, value);
+		}
+		if (dist[i] != 0) {
+			// Robin Hood: the richer entry gives way
+			Object k = keys[i];
+			Object v = values[i];
+			int dk = dist[i];
+			keys[i] = key;
+			values[i] = value;
+			dist[i] = d;
+			placeDisplaced(i, k, v, dk);
+		} else {
+			keys[i] = key;
+			values[i] = value;
+			dist[i] = d;
+		}
+		size++;
+		if (counters != null)
+			counters.inserts++;
+		return null;
+	}
+
+	@Override
+	public V search(K key) {
+		int i = indexOf(key);
+		if (i < 0)
+			return null;
+		@SuppressWarnings("unchecked")
+		V r = (V) values[i];
+		return r;
+	}
+
+	@Override
+	public V remove(K key) {
+		int i = indexOf(key);
+		if (i < 0)
+			return null;
+		@SuppressWarnings("unchecked")
+		V r = (V) values[i];
+		// Backward-shift deletion
+		int next = (i + 1) & mask;
+		while (dist[next] > 1) {
+			keys[i] = keys[next];
+			values[i] = values[next];
+			dist[i] = dist[next] - 1;
+			i = next;
+			next = (next + 1) & mask;
+		}
+		keys[i] = null;
+		values[i] = null;
+		dist[i] = 0;
+		size--;
+		return r;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * The histogram counts the slots by probe length (0: empty slot).
+	 */
+	@Override
+	public DictionaryStats stats() {
+		int max = 0;
+		for (int d : dist)
+			max = Math.max(max, d);
+		long[] histogram = new long[max + 1];
+		for (int d : dist)
+			histogram[d]++;
+		return new DictionaryStats(size, (double) size / dist.length, "probe length", histogram, -1, counters);
+	}
+
+	@Override
+	public void setStatsEnabled(boolean enabled) {
+		counters = enabled ? new DictionaryStats.Counters() : null;
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> iterator() {
+		return new Iterator<Dictionary.Entry<K, V>>() {
+			int index = advance(0);
+
+			private int advance(int i) {
+				while (i < dist.length && dist[i] == 0)
+					i++;
+				return i;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return index < dist.length;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public Entry<K, V> next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				Entry<K, V> entry = new Entry<K, V>((K) keys[index], (V) values[index]);
+				index = advance(index + 1);
+				return entry;
+			}
+		};
+	}
+
+	private int indexOf(Object key) {
+		int i = hash(key) & mask;
+		int d = 1;
+		// An entry with a smaller probe distance than ours ends the search
+		while (dist[i] >= d) {
+			if (dist[i] == d && keys[i].equals(key))
+				return i;
+			i = (i + 1) & mask;
+			d++;
+		}
+		return -1;
+	}
+
+	private void placeDisplaced(int i, Object k, Object v, int d) {
+		if (counters != null)
+			counters.insertMoves++;
+		while (true) {
+			i = (i + 1) & mask;
+			d++;
+			if (dist[i] == 0) {
+				keys[i] = k;
+				values[i] = v;
+				dist[i] = d;
+				return;
+			}
+			if (dist[i] < d) {
+				Object tk = keys[i];
+				Object tv = values[i];
+				int td = dist[i];
+				keys[i] = k;
+				values[i] = v;
+				dist[i] = d;
+				if (counters != null)
+					counters.insertMoves++;
+				k = tk;
+				v = tv;
+				d = td;
+			}
+		}
+	}
+
+	private void resize(int capacity) {
+		long start = (counters != null) ? System.nanoTime() : 0;
+		Object[] oldKeys = keys;
+		Object[] oldValues = values;
+		int[] oldDist = dist;
+		allocate(capacity);
+		for (int i = 0; i < oldDist.length; i++) {
+			if (oldDist[i] != 0)
+				placeDisplaced((hash(oldKeys[i]) - 1) & mask, oldKeys[i], oldValues[i], 0);
+		}
+		if (counters != null)
+			counters.resized(start);
+	}
+
+	private void allocate(int capacity) {
+		keys = new Object[capacity];
+		values = new Object[capacity];
+		dist = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int tableSizeFor(int capacity) {
+		int n = DEF_CAPACITY;
+		while (n < capacity)
+			n <<= 1;
+		return n;
+	}
+}
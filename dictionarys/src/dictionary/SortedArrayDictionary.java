@@ -1,13 +1,23 @@
 package dictionary;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
-public class SortedArrayDictionary<K extends Comparable<? super K>, V> implements Dictionary<K, V> {
+public class SortedArrayDictionary<K extends Comparable<? super K>, V> implements OrderedDictionary<K, V> {
 
 	private static final int DEF_CAPACITY = 16000;
+	private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
 	private int size;
 	private Entry<K, V>[] data;
+	// Event counters for stats(), null while counting is disabled
+	private DictionaryStats.Counters counters;
 
 	@SuppressWarnings("unchecked")
 	public SortedArrayDictionary() {
@@ -26,7 +36,10 @@ public class SortedArrayDictionary<K extends Comparable<? super K>, V> implement
 		}
 		// New entry for key
 		if (data.length == size) {
+			long start = (counters != null) ? System.nanoTime() : 0;
 			data = Arrays.copyOf(data, 2 * size);
+			if (counters != null)
+				counters.resized(start);
 		}
 		int j = this.size - 1;
 		while (j >= 0 && key.compareTo(data[j].getKey()) < 0) {
@@ -34,10 +47,50 @@ public class SortedArrayDictionary<K extends Comparable<? super K>, V> implement
 			j--;
 		}
 		data[j + 1] = new Entry<K, V>(key, value);
+		if (counters != null) {
+			counters.inserts++;
+			counters.insertMoves += size - (j + 1);
+		}
 		size++;
 		return null;
 	}
 
+	/**
+	 * Bulk load in O(n log n) instead of O(n^2) for repeated inserts:
+	 * existing and new entries are sorted together (in parallel for large inputs),
+	 * duplicate keys are resolved in favour of the last entry
+	 * and the resulting array is installed in one step.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void insertAll(Iterable<? extends Entry<K, V>> entries) {
+		List<Entry<K, V>> all = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+			all.add(data[i]);
+		for (Entry<K, V> e : entries)
+			all.add(new Entry<K, V>(e.getKey(), e.getValue()));
+		Entry<K, V>[] a = all.toArray(new Entry[all.size()]);
+		// Both sorts are stable, so later entries stay behind earlier ones with the same key
+		Comparator<Entry<K, V>> byKey = (x, y) -> x.getKey().compareTo(y.getKey());
+		if (a.length >= PARALLEL_SORT_THRESHOLD)
+			Arrays.parallelSort(a, byKey);
+		else
+			Arrays.sort(a, byKey);
+		int n = 0;
+		for (int i = 0; i < a.length; i++) {
+			if (i + 1 < a.length && byKey.compare(a[i], a[i + 1]) == 0)
+				continue;
+			a[n++] = a[i];
+		}
+		data = Arrays.copyOf(a, Math.max(n, DEF_CAPACITY));
+		if (counters != null) {
+			// Every entry is placed anew
+			counters.inserts += n - size;
+			counters.insertMoves += n;
+		}
+		size = n;
+	}
+
 	@Override
 	public V search(K key) {
 		int i = searchKey(key);
@@ -47,6 +100,32 @@ public class SortedArrayDictionary<K extends Comparable<? super K>, V> implement
 			return null;
 	}
 
+	/**
+	 * Marks the entries to be removed and closes all gaps in one pass,
+	 * O(m log n + n) instead of O(m n) for repeated removes.
+	 */
+	@Override
+	public int removeAll(Collection<? extends K> keys) {
+		boolean[] removed = new boolean[size];
+		int count = 0;
+		for (K key : keys) {
+			int i = searchKey(key);
+			if (i >= 0 && !removed[i]) {
+				removed[i] = true;
+				count++;
+			}
+		}
+		if (count == 0)
+			return 0;
+		int n = 0;
+		for (int i = 0; i < size; i++)
+			if (!removed[i])
+				data[n++] = data[i];
+		Arrays.fill(data, n, size, null);
+		size = n;
+		return count;
+	}
+
 	@Override
 	public V remove(K key) {
 		int i = searchKey(key);
@@ -68,6 +147,19 @@ public class SortedArrayDictionary<K extends Comparable<? super K>, V> implement
 		return this.size;
 	}
 
+	/**
+	 * The load factor is the fill ratio of the array.
+	 */
+	@Override
+	public DictionaryStats stats() {
+		return new DictionaryStats(size, (double) size / data.length, null, new long[0], -1, counters);
+	}
+
+	@Override
+	public void setStatsEnabled(boolean enabled) {
+		counters = enabled ? new DictionaryStats.Counters() : null;
+	}
+
 	@Override
 	public Iterator<Entry<K, V>> iterator() {
 		return new Iterator<Dictionary.Entry<K, V>>() {
@@ -86,14 +178,143 @@ public class SortedArrayDictionary<K extends Comparable<? super K>, V> implement
 		};
 	}
 
+	/**
+	 * Splits by index range; every part knows its exact size.
+	 */
+	@Override
+	public Spliterator<Entry<K, V>> spliterator() {
+		return new IndexSpliterator(0, size);
+	}
+
+	private final class IndexSpliterator implements Spliterator<Entry<K, V>> {
+		private int index;
+		private final int fence;
+
+		IndexSpliterator(int index, int fence) {
+			this.index = index;
+			this.fence = fence;
+		}
+
+		@Override
+		public Spliterator<Entry<K, V>> trySplit() {
+			int mid = (index + fence) >>> 1;
+			if (index >= mid)
+				return null;
+			IndexSpliterator prefix = new IndexSpliterator(index, mid);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+			if (index >= fence)
+				return false;
+			action.accept(data[index++]);
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+			for (; index < fence; index++)
+				action.accept(data[index]);
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SORTED | Spliterator.SIZED | Spliterator.SUBSIZED
+					| Spliterator.DISTINCT | Spliterator.NONNULL;
+		}
+
+		@Override
+		public Comparator<? super Entry<K, V>> getComparator() {
+			return OrderedDictionary.entryOrder();
+		}
+	}
+
+	@Override
+	public Entry<K, V> first() {
+		return (size == 0) ? null : data[0];
+	}
+
+	@Override
+	public Entry<K, V> last() {
+		return (size == 0) ? null : data[size - 1];
+	}
+
+	@Override
+	public Entry<K, V> floor(K key) {
+		int i = lowerBound(key);
+		if (i < size && key.compareTo(data[i].getKey()) == 0)
+			return data[i];
+		return (i > 0) ? data[i - 1] : null;
+	}
+
+	@Override
+	public Entry<K, V> ceiling(K key) {
+		int i = lowerBound(key);
+		return (i < size) ? data[i] : null;
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> range(K from, K to) {
+		return new Iterator<Dictionary.Entry<K, V>>() {
+			int currentIndex = lowerBound(from);
+			final int endIndex = Math.max(currentIndex, lowerBound(to));
+
+			@Override
+			public boolean hasNext() {
+				return currentIndex < endIndex;
+			}
+
+			@Override
+			public Entry<K, V> next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				return data[currentIndex++];
+			}
+		};
+	}
+
+	/**
+	 * Returns an immutable copy of this dictionary in a search-optimized
+	 * layout, for use once loading is done. Later changes to this dictionary
+	 * do not affect the copy.
+	 * @return a frozen copy of this dictionary
+	 */
+	public FrozenSortedArrayDictionary<K, V> freeze() {
+		return new FrozenSortedArrayDictionary<K, V>(data, size);
+	}
+
+	/**
+	 * Returns the index of the first entry whose key is &gt;= key (size if there is none).
+	 */
+	private int lowerBound(K key) {
+		int li = 0;
+		int re = size;
+		while (li < re) {
+			int m = (li + re) >>> 1;
+			if (data[m].getKey().compareTo(key) < 0)
+				li = m + 1;
+			else
+				re = m;
+		}
+		return li;
+	}
+
 	private int searchKey(K key) {
 		int li = 0;
 		int re = size - 1;
 		while (re >= li) {
 			int m = (li + re) / 2;
-			if (key.compareTo(data[m].getKey()) < 0) {
+			int c = key.compareTo(data[m].getKey());
+			if (c < 0) {
 				re = m - 1;
-			} else if (key.compareTo(data[m].getKey()) > 0) {
+			} else if (c > 0) {
 				li = m + 1;
 			} else {
 				return m;
@@ -0,0 +1,97 @@
+package dictionary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Makes any dictionary thread-safe by guarding every call with one monitor.
+ * Iteration works on a snapshot taken under the monitor.
+ * @param <K> the type of keys maintained by this dictionary.
+ * @param <V> the type of mapped values.
+ */
+public class SynchronizedDictionary<K, V> implements Dictionary<K, V> {
+
+	private final Dictionary<K, V> dict;
+
+	public SynchronizedDictionary(Dictionary<K, V> dict) {
+		this.dict = dict;
+	}
+
+	@Override
+	public synchronized V insert(K key, V value) {
+		return dict.insert(key, value);
+	}
+
+	@Override
+	public synchronized V search(K key) {
+		return dict.search(key);
+	}
+
+	@Override
+	public synchronized V remove(K key) {
+		return dict.remove(key);
+	}
+
+	/**
+	 * Searches the whole batch under one acquisition of the monitor.
+	 */
+	@Override
+	public synchronized List<V> searchAll(List<? extends K> keys) {
+		return dict.searchAll(keys);
+	}
+
+	@Override
+	public synchronized void insertAll(Iterable<? extends Entry<K, V>> entries) {
+		dict.insertAll(entries);
+	}
+
+	@Override
+	public synchronized void insertAll(Map<? extends K, ? extends V> map) {
+		dict.insertAll(map);
+	}
+
+	@Override
+	public synchronized int removeAll(Collection<? extends K> keys) {
+		return dict.removeAll(keys);
+	}
+
+	@Override
+	public synchronized V putIfAbsent(K key, V value) {
+		return dict.putIfAbsent(key, value);
+	}
+
+	@Override
+	public synchronized V compute(K key, BiFunction<? super K, ? super V, ? extends V> f) {
+		return dict.compute(key, f);
+	}
+
+	@Override
+	public synchronized int size() {
+		return dict.size();
+	}
+
+	/**
+	 * Takes the snapshot of the wrapped dictionary under the monitor.
+	 */
+	@Override
+	public synchronized DictionaryStats stats() {
+		return dict.stats();
+	}
+
+	@Override
+	public synchronized void setStatsEnabled(boolean enabled) {
+		dict.setStatsEnabled(enabled);
+	}
+
+	@Override
+	public synchronized Iterator<Entry<K, V>> iterator() {
+		List<Entry<K, V>> snapshot = new ArrayList<>(dict.size());
+		for (Entry<K, V> e : dict)
+			snapshot.add(new Entry<K, V>(e.getKey(), e.getValue()));
+		return snapshot.iterator();
+	}
+}
@@ -1,9 +1,9 @@
 package dictionary;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Scanner;
 
 public class TUI {
@@ -13,8 +13,22 @@ public class TUI {
 			+ "\t\t\t\tWird n weggelassen, dann werden alle Eintrge eingelesen.\r\n"
 			+ "p:\t\t\t\tGibt alle Eintrge des Dictionary in der Konsole aus (print).\r\n"
 			+ "s [deutsch]:\t\t\tGibt das entsprechende englische Wort aus (search).\r\n"
+			+ "t [deutsch] ...:\t\tbersetzt alle Wrter auf einmal (batch search).\r\n"
 			+ "i [deutsch] [englisch]:\t\tFgt ein neues Wortpaar in das Dictionary ein (insert).\r\n"
-			+ "r [deutsch]:\t\t\tLscht einen Eintrag (remove).\r\nexit:\t\t\t\tBeendet das Programm.";
+			+ "r [deutsch]:\t\t\tLscht einen Eintrag (remove).\r\n"
+			+ "ps [prfix] [n]:\t\tGibt die ersten n (voreingestellt 10) Eintrge mit dem Prfix aus (prefix search).\r\n"
+			+ "\t\t\t\tNur fr RadixTreeDictionary.\r\n"
+			+ "save [Dateiname]:\t\tSpeichert das Dictionary als Snapshot-Datei.\r\n"
+			+ "load [Dateiname]:\t\tffnet eine Snapshot-Datei als schreibgeschtztes Dictionary (memory-mapped).\r\n"
+			+ "freeze:\t\t\t\tWandelt das SortedArrayDictionary in eine schreibgeschtzte,\r\n"
+			+ "\t\t\t\tsuchoptimierte Form um (Eytzinger-Layout).\r\n"
+			+ "bloom:\t\t\t\tBeantwortet die Suche nach fehlenden Wrtern meist ber einen Bloom-Filter.\r\n"
+			+ "durable [Verzeichnis]:\t\tProtokolliert alle nderungen im Verzeichnis (write-ahead log)\r\n"
+			+ "\t\t\t\tund stellt den dort gespeicherten Stand wieder her.\r\n"
+			+ "stats [on|off]:\t\t\tGibt Kennzahlen der Datenstruktur aus (Kettenlngen, Hhe, ...).\r\n"
+			+ "\t\t\t\ton/off schaltet das Zhlen von Einfgungen, Verschiebungen,\r\n"
+			+ "\t\t\t\tVergrerungen und Rotationen ein bzw. aus.\r\n"
+			+ "exit:\t\t\t\tBeendet das Programm.";
 
 	private static Dictionary<String, String> dictionary;
 
@@ -25,7 +39,11 @@ public class TUI {
 				String rawInput = scanner.nextLine();
 				if (rawInput.isEmpty())
 					continue;
-				parseCommand(rawInput);
+				try {
+					parseCommand(rawInput);
+				} catch (UnsupportedOperationException e) {
+					System.out.println(e.getMessage());
+				}
 
 			} while (true);
 		}
@@ -56,6 +74,12 @@ public class TUI {
 			else
 				System.out.println("No dictionary initialised! Use 'create'");
 			break;
+		case "t":
+			if (isDictionaryInitialised())
+				executeTranslate(Arrays.copyOfRange(args, 1, args.length));
+			else
+				System.out.println("No dictionary initialised! Use 'create'");
+			break;
 		case "i":
 			if (isDictionaryInitialised())
 				executeInsert(Arrays.copyOfRange(args, 1, args.length));
@@ -68,6 +92,45 @@ public class TUI {
 			else
 				System.out.println("No dictionary initialised! Use 'create'");
 			break;
+		case "ps":
+			if (isDictionaryInitialised())
+				executePrefixSearch(Arrays.copyOfRange(args, 1, args.length));
+			else
+				System.out.println("No dictionary initialised! Use 'create'");
+			break;
+		case "save":
+			if (isDictionaryInitialised())
+				executeSave(Arrays.copyOfRange(args, 1, args.length));
+			else
+				System.out.println("No dictionary initialised! Use 'create'");
+			break;
+		case "load":
+			executeLoad(Arrays.copyOfRange(args, 1, args.length));
+			break;
+		case "freeze":
+			if (dictionary instanceof SortedArrayDictionary)
+				dictionary = ((SortedArrayDictionary<String, String>) dictionary).freeze();
+			else
+				System.out.println("Only a SortedArrayDictionary can be frozen! Use 'create'");
+			break;
+		case "bloom":
+			if (isDictionaryInitialised())
+				dictionary = new BloomFilterDictionary<>(dictionary);
+			else
+				System.out.println("No dictionary initialised! Use 'create'");
+			break;
+		case "durable":
+			if (isDictionaryInitialised())
+				executeDurable(Arrays.copyOfRange(args, 1, args.length));
+			else
+				System.out.println("No dictionary initialised! Use 'create'");
+			break;
+		case "stats":
+			if (isDictionaryInitialised())
+				executeStats(Arrays.copyOfRange(args, 1, args.length));
+			else
+				System.out.println("No dictionary initialised! Use 'create'");
+			break;
 		case "exit":
 			executeExit();
 			break;
@@ -77,11 +140,58 @@ public class TUI {
 		}
 	}
 
-	private static void executeExit() {
+	private static void executeExit() throws Exception {
+		if (dictionary instanceof DurableDictionary)
+			((DurableDictionary<String, String>) dictionary).close();
 		System.out.println("Good bye!");
 		System.exit(0);
 	}
 
+	private static void executeStats(String[] args) {
+		if (args.length == 0)
+			System.out.println(dictionary.stats());
+		else if (args.length == 1 && (args[0].equals("on") || args[0].equals("off")))
+			dictionary.setStatsEnabled(args[0].equals("on"));
+		else
+			printHelp();
+	}
+
+	private static void executeDurable(String[] args) throws Exception {
+		if (args.length != 1) {
+			printHelp();
+			return;
+		}
+
+		// Das geschlossene Log nicht erneut einpacken, sondern das Dictionary darunter
+		if (dictionary instanceof DurableDictionary) {
+			((DurableDictionary<String, String>) dictionary).close();
+			dictionary = ((DurableDictionary<String, String>) dictionary).unwrap();
+		}
+		var durable = new DurableDictionary<String, String>(dictionary, Paths.get(args[0]),
+				DurableDictionary.Codec.STRING, DurableDictionary.Codec.STRING, 64, 100000);
+		// Den bisherigen Inhalt sofort sichern
+		durable.checkpoint();
+		dictionary = durable;
+	}
+
+	private static void executeSave(String[] args) throws Exception {
+		if (args.length != 1) {
+			printHelp();
+			return;
+		}
+
+		MappedDictionary.writeSnapshot(dictionary, Paths.get(args[0]));
+	}
+
+	private static void executeLoad(String[] args) throws Exception {
+		if (args.length != 1) {
+			printHelp();
+			return;
+		}
+
+		dictionary = MappedDictionary.open(Paths.get(args[0]));
+	}
+
 	private static void executeRemove(String[] args) {
 		if (args.length != 1) {
 			printHelp();
@@ -100,6 +210,25 @@ public class TUI {
 		dictionary.insert(args[0], args[1]);
 	}
 
+	private static void executePrefixSearch(String[] args) {
+		if (args.length != 1 && args.length != 2) {
+			printHelp();
+			return;
+		}
+		if (!(dictionary instanceof RadixTreeDictionary)) {
+			System.out.println("Prefix search needs a RadixTreeDictionary! Use 'create Radix'");
+			return;
+		}
+
+		int n = (args.length == 2) ? Integer.parseInt(args[1]) : 10;
+		Iterator<Dictionary.Entry<String, String>> iter = ((RadixTreeDictionary<String>) dictionary)
+				.prefixIterator(args[0]);
+		for (int i = 0; i < n && iter.hasNext(); i++) {
+			Dictionary.Entry<String, String> element = iter.next();
+			System.out.println(element.getKey() + " - " + element.getValue());
+		}
+	}
+
 	private static void executeSearch(String[] args) {
 		if (args.length != 1) {
 			printHelp();
@@ -109,39 +238,31 @@ public class TUI {
 		System.out.println(dictionary.search(args[0]));
 	}
 
+	private static void executeTranslate(String[] args) {
+		if (args.length == 0) {
+			printHelp();
+			return;
+		}
+
+		List<String> translation = dictionary.searchAll(Arrays.asList(args));
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < args.length; i++)
+			sb.append(translation.get(i) != null ? translation.get(i) : "[" + args[i] + "]").append(' ');
+		System.out.println(sb.toString().trim());
+	}
+
 	private static void executePrint() {
 		for (var element : dictionary)
 			System.out.println(element.getKey() + " - " + element.getValue());
 	}
 
 	private static void executeRead(String[] args) throws Exception {
-		if (args.length != 1 && args.length != 2) {
+		if (args.length == 1)
+			WordListLoader.load(Paths.get(args[0]), dictionary);
+		else if (args.length == 2)
+			WordListLoader.load(Paths.get(args[1]), dictionary, Integer.parseInt(args[0]));
+		else
 			printHelp();
-			return;
-		}
-
-		BufferedReader reader = null;
-		String line;
-
-		if (args.length == 1) {
-			reader = new BufferedReader(new FileReader(new File(args[0])));
-
-			while ((line = reader.readLine()) != null) {
-				String[] words = line.split(" ");
-				dictionary.insert(words[0], words[1]);
-			}
-		} else if (args.length == 2) {
-			reader = new BufferedReader(new FileReader(new File(args[1])));
-
-			int counter = 0;
-			while ((line = reader.readLine()) != null && counter < Integer.parseInt(args[0])) {
-				String[] words = line.split(" ");
-				dictionary.insert(words[0], words[1]);
-				counter++;
-			}
-		}
-
-		reader.close();
 	}
 
 	private static void executeCreate(String[] args) throws Exception {
@@ -150,8 +271,18 @@ public class TUI {
 			return;
 		}
 
-		if (args[0].contains("Tree"))
+		if (args[0].contains("Radix"))
+			dictionary = new RadixTreeDictionary<>();
+		else if (args[0].contains("BTree"))
+			dictionary = new BTreeDictionary<>();
+		else if (args[0].contains("Tree"))
 			dictionary = new BinaryTreeDictionary<>();
+		else if (args[0].contains("Concurrent"))
+			dictionary = new ConcurrentHashDictionary<>();
+		else if (args[0].contains("Cuckoo"))
+			dictionary = new CuckooHashDictionary<>();
+		else if (args[0].contains("RobinHood"))
+			dictionary = new RobinHoodHashDictionary<>();
 		else if (args[0].contains("Hash"))
 			dictionary = new HashDictionary<>(7);
 		else
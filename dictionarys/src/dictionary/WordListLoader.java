@@ -0,0 +1,198 @@
+package dictionary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Loads word lists (one pair "key value" per line, UTF-8) into dictionaries.
+ * <p>
+ * The file is memory-mapped and cut into chunks that end at line breaks.
+ * The chunks are parsed in parallel on the common ForkJoinPool by scanning
+ * the bytes for blanks and line breaks, without regular expressions or
+ * intermediate String arrays; only key and value strings are allocated.
+ * Pure ASCII words are decoded by a plain byte copy.
+ * <p>
+ * Thread-safe dictionaries (ConcurrentHashDictionary,
+ * ConcurrentSkipListDictionary) are filled by the parsing tasks directly.
+ * All other dictionaries receive the entries in file order through
+ * insertAll, so a bulk load is used where available.
+ */
+public final class WordListLoader {
+
+	private static final int MIN_CHUNK_SIZE = 1 << 20;
+	private static final int MAX_CHUNK_SIZE = 1 << 28;
+
+	// private constructor to prevent instantiation of library
+	private WordListLoader() {
+	}
+
+	/**
+	 * Reads all pairs of the file into dict.
+	 * If a key occurs several times, the last pair wins; for thread-safe
+	 * dictionaries, which are filled in parallel, any of them may win.
+	 * @param file word list
+	 * @param dict dictionary to be filled
+	 * @throws IOException if the file cannot be read
+	 */
+	public static void load(Path file, Dictionary<String, String> dict) throws IOException {
+		if (dict instanceof ConcurrentHashDictionary || dict instanceof ConcurrentSkipListDictionary) {
+			parseParallel(file, dict);
+		} else {
+			List<Dictionary.Entry<String, String>> entries = new ArrayList<>();
+			for (List<Dictionary.Entry<String, String>> chunk : parseParallel(file, null))
+				entries.addAll(chunk);
+			dict.insertAll(entries);
+		}
+	}
+
+	/**
+	 * Reads the first n pairs of the file into dict. Only the beginning of
+	 * the file is parsed, sequentially.
+	 * @param file word list
+	 * @param dict dictionary to be filled
+	 * @param n number of pairs to be read
+	 * @throws IOException if the file cannot be read
+	 */
+	public static void load(Path file, Dictionary<String, String> dict, int n) throws IOException {
+		dict.insertAll(read(file, n));
+	}
+
+	/**
+	 * Returns the first n pairs of the file in file order.
+	 * @param file word list
+	 * @param n maximum number of pairs (Integer.MAX_VALUE: all)
+	 * @return the pairs as entries
+	 * @throws IOException if the file cannot be read
+	 */
+	public static List<Dictionary.Entry<String, String>> read(Path file, int n) throws IOException {
+		List<Dictionary.Entry<String, String>> entries = new ArrayList<>();
+		if (n == Integer.MAX_VALUE) {
+			for (List<Dictionary.Entry<String, String>> chunk : parseParallel(file, null))
+				entries.addAll(chunk);
+			return entries;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			for (long start = 0; start < size && entries.size() < n;) {
+				long end = chunkEnd(channel, Math.min(size, start + MAX_CHUNK_SIZE));
+				parseChunk(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start), entries, null,
+						n - entries.size());
+				start = end;
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Parses all chunks of the file in parallel. If dict is not null, the
+	 * pairs are inserted into it and the returned chunks are empty.
+	 */
+	private static List<List<Dictionary.Entry<String, String>>> parseParallel(Path file,
+			Dictionary<String, String> dict) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			int parallelism = ForkJoinPool.getCommonPoolParallelism();
+			long chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, size / (4L * parallelism) + 1));
+			List<Callable<List<Dictionary.Entry<String, String>>>> tasks = new ArrayList<>();
+			for (long start = 0; start < size;) {
+				long end = chunkEnd(channel, Math.min(size, start + chunkSize));
+				MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+				tasks.add(() -> {
+					List<Dictionary.Entry<String, String>> entries = new ArrayList<>();
+					parseChunk(chunk, entries, dict, Integer.MAX_VALUE);
+					return entries;
+				});
+				start = end;
+			}
+			List<List<Dictionary.Entry<String, String>>> chunks = new ArrayList<>(tasks.size());
+			for (Future<List<Dictionary.Entry<String, String>>> f : ForkJoinPool.commonPool().invokeAll(tasks))
+				chunks.add(f.get());
+			return chunks;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof UncheckedIOException)
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Returns the position after the first line break at or after pos
+	 * (or the file size).
+	 */
+	private static long chunkEnd(FileChannel channel, long pos) throws IOException {
+		long size = channel.size();
+		if (pos >= size)
+			return size;
+		ByteBuffer buf = ByteBuffer.allocate(4096);
+		while (pos < size) {
+			buf.clear();
+			int r = channel.read(buf, pos);
+			for (int i = 0; i < r; i++)
+				if (buf.get(i) == '\n')
+					return pos + i + 1;
+			pos += r;
+		}
+		return size;
+	}
+
+	/**
+	 * Parses at most limit pairs of a chunk. Lines without a blank are
+	 * skipped; the value ends at the next blank, like split(" ")[1].
+	 */
+	private static void parseChunk(ByteBuffer buf, List<Dictionary.Entry<String, String>> entries,
+			Dictionary<String, String> dict, int limit) {
+		byte[] scratch = new byte[256];
+		int end = buf.limit();
+		int pos = 0;
+		int count = 0;
+		while (pos < end && count < limit) {
+			int lineEnd = pos;
+			int blank = -1;
+			int valueEnd = -1;
+			boolean ascii = true;
+			for (byte b; lineEnd < end && (b = buf.get(lineEnd)) != '\n'; lineEnd++) {
+				if (b == ' ') {
+					if (blank < 0)
+						blank = lineEnd;
+					else if (valueEnd < 0)
+						valueEnd = lineEnd;
+				} else if (b < 0) {
+					ascii = false;
+				}
+			}
+			int lineStop = (lineEnd > pos && buf.get(lineEnd - 1) == '\r') ? lineEnd - 1 : lineEnd;
+			if (blank >= 0) {
+				if (valueEnd < 0 || valueEnd > lineStop)
+					valueEnd = lineStop;
+				Charset cs = ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8;
+				if (scratch.length < lineEnd - pos)
+					scratch = new byte[2 * (lineEnd - pos)];
+				buf.get(pos, scratch, 0, lineEnd - pos);
+				String key = new String(scratch, 0, blank - pos, cs);
+				String value = new String(scratch, blank + 1 - pos, Math.max(0, valueEnd - blank - 1), cs);
+				if (dict != null)
+					dict.insert(key, value);
+				else
+					entries.add(new Dictionary.Entry<>(key, value));
+				count++;
+			}
+			pos = lineEnd + 1;
+		}
+	}
+}